@@ -0,0 +1,161 @@
+import Enum.EnumLogin;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class CacheLogin {
+
+    private static final int FAIXAS_GERACAO = 1024;
+
+    private final long ttlPositivoNanos;
+    private final long ttlNegativoNanos;
+    private final long janelaTentativasNanos;
+    private final int maxTentativas;
+    private final int maxEmails;
+    private final Map<String, Registro> registros = new ConcurrentHashMap<>();
+
+    // Geração por e-mail (em faixas fixas, para não crescer com e-mails aleatórios): invalidar a incrementa e um
+    // resultado lido do banco antes disso é descartado em registrar. Colisões entre e-mails da mesma faixa
+    // só descartam gravações a mais, nunca aceitam um resultado antigo
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS_GERACAO);
+
+    public CacheLogin(long ttlPositivoMillis, long ttlNegativoMillis, long janelaTentativasMillis,
+                      int maxTentativas, int maxEmails) {
+        this.ttlPositivoNanos = TimeUnit.MILLISECONDS.toNanos(ttlPositivoMillis);
+        this.ttlNegativoNanos = TimeUnit.MILLISECONDS.toNanos(ttlNegativoMillis);
+        this.janelaTentativasNanos = TimeUnit.MILLISECONDS.toNanos(janelaTentativasMillis);
+        this.maxTentativas = maxTentativas;
+        this.maxEmails = maxEmails;
+    }
+
+    // Retorna o resultado em cache ou null quando é preciso consultar o banco. LIMITADO significa que a senha não foi
+    // conferida por excesso de falhas na janela; não diz nada sobre ela estar certa ou errada
+    public EnumLogin consultar(String email, String senha) {
+        if (email == null || senha == null) {
+            return null;
+        }
+
+        Registro registro = registros.get(email);
+        if (registro == null) {
+            return null;
+        }
+        return registro.consultar(resumo(senha), System.nanoTime());
+    }
+
+    // Deve ser lida antes de consultar o banco e repassada a registrar
+    public long geracao(String email) {
+        return email == null ? 0 : geracoes.get(faixa(email));
+    }
+
+    public void registrar(String email, String senha, boolean valido, long geracao) {
+        if (email == null || senha == null) {
+            return;
+        }
+
+        if (registros.size() >= maxEmails) {
+            removerExpirados();
+        }
+        byte[] resumo = resumo(senha);
+        // A conferência da geração e a gravação acontecem dentro do compute, então um invalidar concorrente ou já
+        // descartou este resultado ou remove o registro logo depois dele
+        registros.compute(email, (e, registro) -> {
+            if (geracoes.get(faixa(e)) != geracao) {
+                return registro;
+            }
+            Registro r = registro != null ? registro : new Registro();
+            r.registrar(resumo, valido, System.nanoTime());
+            return r;
+        });
+    }
+
+    public void invalidar(String email) {
+        if (email != null) {
+            geracoes.incrementAndGet(faixa(email));
+            registros.remove(email);
+        }
+    }
+
+    public int getTamanho() {
+        return registros.size();
+    }
+
+    private void removerExpirados() {
+        long agora = System.nanoTime();
+        registros.values().removeIf(r -> r.expirado(agora));
+        if (registros.size() >= maxEmails) {
+            registros.clear(); // Sob ataque com e-mails aleatórios o cache é descartado em vez de crescer
+        }
+    }
+
+    private static int faixa(String email) {
+        int h = email.hashCode();
+        return (h ^ (h >>> 16)) & (FAIXAS_GERACAO - 1);
+    }
+
+    // Guarda só o hash da senha, nunca o texto
+    private static byte[] resumo(String senha) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(senha.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class Registro {
+        private byte[] senhaValida;
+        private long validoAte;
+        private byte[] senhaInvalida;
+        private long invalidoAte;
+        private int falhas;
+        private long inicioJanela;
+
+        private Registro() {
+            long agora = System.nanoTime();
+            this.validoAte = agora;
+            this.invalidoAte = agora;
+            this.inicioJanela = agora;
+        }
+
+        private synchronized EnumLogin consultar(byte[] senha, long agora) {
+            if (senhaValida != null && agora - validoAte < 0 && MessageDigest.isEqual(senhaValida, senha)) {
+                return EnumLogin.VALIDO;
+            }
+            if (senhaInvalida != null && agora - invalidoAte < 0 && MessageDigest.isEqual(senhaInvalida, senha)) {
+                falhas++;
+                return EnumLogin.INVALIDO;
+            }
+            // Excesso de falhas na janela: não vai ao banco até a janela acabar, mas também não afirma que a senha
+            // está errada, senão bastaria errar de propósito para barrar o dono da conta
+            if (falhas >= maxTentativas && agora - inicioJanela < janelaTentativasNanos) {
+                return EnumLogin.LIMITADO;
+            }
+            return null;
+        }
+
+        private synchronized void registrar(byte[] senha, boolean valido, long agora) {
+            if (valido) {
+                senhaValida = senha;
+                validoAte = agora + ttlPositivoNanos;
+                falhas = 0;
+                return;
+            }
+
+            senhaInvalida = senha;
+            invalidoAte = agora + ttlNegativoNanos;
+            if (agora - inicioJanela >= janelaTentativasNanos) {
+                inicioJanela = agora;
+                falhas = 0;
+            }
+            falhas++;
+        }
+
+        private synchronized boolean expirado(long agora) {
+            return agora - validoAte >= 0 && agora - invalidoAte >= 0 && agora - inicioJanela >= janelaTentativasNanos;
+        }
+    }
+}
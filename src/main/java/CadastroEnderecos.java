@@ -0,0 +1,376 @@
+import Enum.EnumCadastroEndereco;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Endereços já cadastrados guardados só como impressões digitais de 64 bits numa tabela de endereçamento aberto
+// (8 bytes por posição). Com 64 bits, a chance de dois endereços diferentes colidirem é desprezível mesmo com dezenas de
+// milhões de registros (~n²/2^65). A tabela dobra de tamanho ao passar de 90% de ocupação, até a capacidade máxima.
+public class CadastroEnderecos {
+
+    public static final int CAPACIDADE_LIMITE = 1 << 30;
+
+    private static final int MAGICO = 0x454E4453; // "ENDS"
+    private static final long VAZIO = 0;
+    private static final double OCUPACAO_MAXIMA = 0.9;
+
+    private final int capacidadeMaxima;
+    private final int bitsBloomPorEndereco;
+    private final int funcoesBloom;
+    private final AtomicInteger quantidade = new AtomicInteger();
+
+    // Inserções seguram a leitura (e continuam concorrentes entre si, por CAS); só o crescimento segura a escrita.
+    // Consultas não usam o lock: leem a tabela atual, que nunca muda de conteúdo depois de substituída
+    private final ReadWriteLock crescimento = new ReentrantReadWriteLock();
+    private volatile Tabela tabela;
+
+    // Capacidade inicial (potência de 2) define a memória: 8 bytes por posição, mais bitsBloomPorEndereco / 8 se > 0
+    public CadastroEnderecos(int capacidadeInicial, int bitsBloomPorEndereco) {
+        this(capacidadeInicial, CAPACIDADE_LIMITE, bitsBloomPorEndereco);
+    }
+
+    public CadastroEnderecos(int capacidadeInicial, int capacidadeMaxima, int bitsBloomPorEndereco) {
+        if (!potenciaDe2(capacidadeInicial) || !potenciaDe2(capacidadeMaxima) || capacidadeMaxima < capacidadeInicial
+                || capacidadeMaxima > CAPACIDADE_LIMITE) {
+            throw new IllegalArgumentException("As capacidades devem ser potências de 2, com a inicial até a máxima");
+        }
+        if (bitsBloomPorEndereco < 0 || bitsBloomPorEndereco > 64) {
+            throw new IllegalArgumentException("Bits do filtro de Bloom por endereço devem estar entre 0 e 64");
+        }
+
+        this.capacidadeMaxima = capacidadeMaxima;
+        this.bitsBloomPorEndereco = bitsBloomPorEndereco;
+        this.funcoesBloom = (int) Math.max(1, Math.min(8, Math.round(bitsBloomPorEndereco * Math.log(2))));
+        this.tabela = new Tabela(capacidadeInicial, bitsBloomPorEndereco);
+    }
+
+    private static boolean potenciaDe2(int valor) {
+        return valor > 0 && Integer.bitCount(valor) == 1;
+    }
+
+    public EnumCadastroEndereco adicionar(String endereco) {
+        long impressao = impressao(endereco);
+        while (true) {
+            Tabela atual;
+            EnumCadastroEndereco resultado;
+            crescimento.readLock().lock();
+            try {
+                atual = tabela;
+                resultado = inserir(atual, impressao);
+            } finally {
+                crescimento.readLock().unlock();
+            }
+
+            if (resultado != EnumCadastroEndereco.CHEIO || !crescer(atual)) {
+                return resultado;
+            }
+        }
+    }
+
+    public boolean contem(String endereco) {
+        return contem(tabela, impressao(endereco));
+    }
+
+    public int getQuantidade() {
+        return quantidade.get();
+    }
+
+    public int getCapacidade() {
+        return tabela.posicoes.length();
+    }
+
+    public int getCapacidadeMaxima() {
+        return capacidadeMaxima;
+    }
+
+    // Grava as impressões num arquivo; inserções concorrentes durante a gravação podem ou não entrar na cópia.
+    // O filtro de Bloom não é gravado: é refeito a partir da tabela ao restaurar
+    public void salvar(Path arquivo) throws IOException {
+        Tabela atual = tabela;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(MAGICO).putInt(atual.posicoes.length()).putInt(capacidadeMaxima).putInt(bitsBloomPorEndereco);
+            escrever(canal, buffer, atual.posicoes);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        }
+    }
+
+    public static CadastroEnderecos restaurar(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.flip(); // começa vazio para leitura
+            ler(canal, buffer, 16);
+            if (buffer.getInt() != MAGICO) {
+                throw new IOException("Arquivo não é um cadastro de endereços: " + arquivo);
+            }
+            int capacidade = buffer.getInt();
+            int capacidadeMaxima = buffer.getInt();
+            int bitsBloomPorEndereco = buffer.getInt();
+
+            CadastroEnderecos cadastro;
+            try {
+                cadastro = new CadastroEnderecos(capacidade, capacidadeMaxima, bitsBloomPorEndereco);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Cabeçalho do cadastro de endereços inválido: " + arquivo, e);
+            }
+            Tabela restaurada = cadastro.tabela;
+            for (int i = 0; i < capacidade; i++) {
+                if (buffer.remaining() < 8) {
+                    ler(canal, buffer, 8);
+                }
+                long impressao = buffer.getLong();
+                restaurada.posicoes.set(i, impressao);
+                if (impressao != VAZIO) {
+                    cadastro.marcarBloom(restaurada, impressao);
+                    cadastro.quantidade.incrementAndGet();
+                }
+            }
+            return cadastro;
+        }
+    }
+
+    // Minúsculas, sem acentos, pontuação trocada por espaço e espaços repetidos removidos
+    public static String normalizar(String endereco) {
+        StringBuilder normalizado = new StringBuilder(endereco.length());
+        percorrerNormalizado(endereco, normalizado);
+        return normalizado.toString();
+    }
+
+    private EnumCadastroEndereco inserir(Tabela t, long impressao) {
+        boolean reservada = false;
+        if (t.bloom != null && !talvezNoBloom(t, impressao)) {
+            // Bloom negativo: o endereço é novo com certeza, então a vaga é reservada antes de percorrer a tabela e,
+            // se não houver vaga, a tabela nem é tocada
+            if (!reservarVaga(t)) {
+                return EnumCadastroEndereco.CHEIO;
+            }
+            reservada = true;
+        }
+
+        int posicao = (int) impressao & t.mascara;
+        for (int tentativas = 0; tentativas <= t.mascara; tentativas++) {
+            long atual = t.posicoes.get(posicao);
+            if (atual == VAZIO) {
+                // Chegou numa posição vazia sem achar a impressão: não é duplicado, então precisa de uma vaga
+                if (!reservada) {
+                    if (!reservarVaga(t)) {
+                        return EnumCadastroEndereco.CHEIO;
+                    }
+                    reservada = true;
+                }
+                if (t.posicoes.compareAndSet(posicao, VAZIO, impressao)) {
+                    marcarBloom(t, impressao);
+                    return EnumCadastroEndereco.ADICIONADO;
+                }
+                atual = t.posicoes.get(posicao);
+            }
+            if (atual == impressao) {
+                if (reservada) {
+                    quantidade.decrementAndGet();
+                }
+                return EnumCadastroEndereco.DUPLICADO;
+            }
+            posicao = (posicao + 1) & t.mascara;
+        }
+
+        if (reservada) {
+            quantidade.decrementAndGet();
+        }
+        return EnumCadastroEndereco.CHEIO;
+    }
+
+    // A quantidade só passa do limite de ocupação por CAS, então inserções concorrentes não estouram a tabela
+    private boolean reservarVaga(Tabela t) {
+        int atual = quantidade.get();
+        while (atual < t.limite) {
+            if (quantidade.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+            atual = quantidade.get();
+        }
+        return false;
+    }
+
+    // Retorna false se a tabela já está na capacidade máxima
+    private boolean crescer(Tabela cheia) {
+        crescimento.writeLock().lock();
+        try {
+            if (tabela != cheia) {
+                return true; // outra thread já fez crescer
+            }
+            int capacidade = cheia.posicoes.length();
+            if (capacidade >= capacidadeMaxima) {
+                return false;
+            }
+
+            Tabela nova = new Tabela(capacidade * 2, bitsBloomPorEndereco);
+            for (int i = 0; i < capacidade; i++) {
+                long impressao = cheia.posicoes.get(i);
+                if (impressao != VAZIO) {
+                    int posicao = (int) impressao & nova.mascara;
+                    while (nova.posicoes.get(posicao) != VAZIO) {
+                        posicao = (posicao + 1) & nova.mascara;
+                    }
+                    nova.posicoes.set(posicao, impressao);
+                    marcarBloom(nova, impressao);
+                }
+            }
+            tabela = nova;
+            return true;
+        } finally {
+            crescimento.writeLock().unlock();
+        }
+    }
+
+    private boolean contem(Tabela t, long impressao) {
+        if (t.bloom != null && !talvezNoBloom(t, impressao)) {
+            return false;
+        }
+
+        int posicao = (int) impressao & t.mascara;
+        for (int tentativas = 0; tentativas <= t.mascara; tentativas++) {
+            long atual = t.posicoes.get(posicao);
+            if (atual == impressao) {
+                return true;
+            }
+            if (atual == VAZIO) {
+                return false;
+            }
+            posicao = (posicao + 1) & t.mascara;
+        }
+        return false;
+    }
+
+    private void marcarBloom(Tabela t, long impressao) {
+        if (t.bloom == null) {
+            return;
+        }
+        long h1 = impressao;
+        long h2 = Long.rotateLeft(impressao, 32) | 1;
+        for (int i = 0; i < funcoesBloom; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, t.bitsBloom);
+            int palavra = (int) (bit >>> 6);
+            long mascaraBit = 1L << bit;
+            long atual = t.bloom.get(palavra);
+            while ((atual & mascaraBit) == 0 && !t.bloom.compareAndSet(palavra, atual, atual | mascaraBit)) {
+                atual = t.bloom.get(palavra);
+            }
+        }
+    }
+
+    private boolean talvezNoBloom(Tabela t, long impressao) {
+        long h1 = impressao;
+        long h2 = Long.rotateLeft(impressao, 32) | 1;
+        for (int i = 0; i < funcoesBloom; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, t.bitsBloom);
+            if ((t.bloom.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Impressão do endereço normalizado (FNV-1a de 64 bits com mistura final), calculada sem montar a String
+    static long impressao(String endereco) {
+        long hash = percorrerNormalizado(endereco, null);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == VAZIO ? 1 : hash;
+    }
+
+    // Aplica a normalização caractere a caractere, acumulando o hash e, se pedido, o texto normalizado
+    private static long percorrerNormalizado(String endereco, StringBuilder saida) {
+        String texto = endereco;
+        for (int i = 0; i < endereco.length(); i++) {
+            if (endereco.charAt(i) >= 0x80) {
+                texto = Normalizer.normalize(endereco, Normalizer.Form.NFKD);
+                break;
+            }
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        boolean espacoPendente = false;
+        boolean inicio = true;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // acento separado da letra pelo NFKD
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                espacoPendente = !inicio;
+                continue;
+            }
+
+            if (espacoPendente) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+                if (saida != null) {
+                    saida.append(' ');
+                }
+                espacoPendente = false;
+            }
+            c = Character.toLowerCase(c);
+            hash = (hash ^ c) * 0x100000001b3L;
+            if (saida != null) {
+                saida.append(c);
+            }
+            inicio = false;
+        }
+        return hash;
+    }
+
+    private static void escrever(FileChannel canal, ByteBuffer buffer, AtomicLongArray valores) throws IOException {
+        for (int i = 0; i < valores.length(); i++) {
+            if (buffer.remaining() < 8) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                buffer.clear();
+            }
+            buffer.putLong(valores.get(i));
+        }
+    }
+
+    // Garante ao menos minimo bytes disponíveis para leitura no buffer
+    private static void ler(FileChannel canal, ByteBuffer buffer, int minimo) throws IOException {
+        buffer.compact();
+        while (buffer.position() < minimo) {
+            if (canal.read(buffer) < 0) {
+                throw new IOException("Cadastro de endereços truncado");
+            }
+        }
+        buffer.flip();
+    }
+
+    // Posições e filtro de Bloom de um tamanho da tabela; ao crescer, um novo par é montado e trocado inteiro
+    private static final class Tabela {
+        private final AtomicLongArray posicoes;
+        private final int mascara;
+        private final int limite;
+        private final AtomicLongArray bloom;
+        private final long bitsBloom;
+
+        private Tabela(int capacidade, int bitsBloomPorEndereco) {
+            this.posicoes = new AtomicLongArray(capacidade);
+            this.mascara = capacidade - 1;
+            this.limite = (int) (capacidade * OCUPACAO_MAXIMA);
+            this.bitsBloom = bitsBloomPorEndereco == 0 ? 0 : Math.max(64, (long) capacidade * bitsBloomPorEndereco);
+            this.bloom = bitsBloom > 0 ? new AtomicLongArray((int) ((bitsBloom + 63) >>> 6)) : null;
+        }
+    }
+}
@@ -1,4 +1,24 @@
+import Model.Centavos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class CarrinhoService {
+
+    public static final long VALIDADE_RESERVA_PADRAO_MILLIS = 15 * 60 * 1000;
+
+    private final ReservaEstoque estoque;
+    private final List<ReservaEstoque.Reserva> reservas = new CopyOnWriteArrayList<>();
+
+    public CarrinhoService() {
+        this(null);
+    }
+
+    public CarrinhoService(ReservaEstoque estoque) {
+        this.estoque = estoque;
+    }
+
     public String adicionarProduto(String nome, int estoque) {
         if (estoque > 0) {
             return "Produto adicionado ao carrinho";
@@ -7,11 +27,74 @@ public class CarrinhoService {
         }
     }
 
+    // Separa a quantidade no estoque até a compra ser finalizada ou a reserva vencer
+    public String adicionarProduto(String idProduto, int quantidade, long validadeReservaMillis) {
+        if (estoque == null) {
+            throw new IllegalStateException("Carrinho sem controle de estoque");
+        }
+
+        ReservaEstoque.Reserva reserva = estoque.reservar(idProduto, quantidade, validadeReservaMillis);
+        if (reserva == null) {
+            return "Produto sem estoque";
+        }
+        reservas.add(reserva);
+        return "Produto adicionado ao carrinho";
+    }
+
+    // Confirma todas as reservas do carrinho ou nenhuma. Se alguma já tinha vencido, retorna false, as demais continuam
+    // ativas e as vencidas saem do carrinho, para o cliente reservar de novo o que faltou
+    public boolean confirmarReservas() {
+        boolean todasAtivas = true;
+        for (ReservaEstoque.Reserva reserva : reservas) {
+            todasAtivas &= reserva.isAtiva() && !reserva.isVencida();
+        }
+
+        if (todasAtivas) {
+            List<ReservaEstoque.Reserva> confirmadas = new ArrayList<>(reservas.size());
+            for (ReservaEstoque.Reserva reserva : reservas) {
+                if (!estoque.confirmar(reserva)) {
+                    // Venceu entre a verificação e a confirmação
+                    confirmadas.forEach(estoque::desfazerConfirmacao);
+                    break;
+                }
+                confirmadas.add(reserva);
+            }
+            if (confirmadas.size() == reservas.size()) {
+                reservas.clear();
+                return true;
+            }
+        }
+
+        for (ReservaEstoque.Reserva reserva : reservas) {
+            if (reserva.isVencida()) {
+                estoque.liberar(reserva);
+            }
+        }
+        reservas.removeIf(reserva -> !reserva.isAtiva());
+        return false;
+    }
+
+    public void liberarReservas() {
+        for (ReservaEstoque.Reserva reserva : reservas) {
+            estoque.liberar(reserva);
+        }
+        reservas.clear();
+    }
+
+    public List<ReservaEstoque.Reserva> getReservas() {
+        return reservas;
+    }
+
     public double calcularValorCarrinho(double[] precos) {
-        double total = 0;
-        for (double preco : precos) {
-            total += preco;
+        long[] centavos = new long[precos.length];
+        for (int i = 0; i < precos.length; i++) {
+            centavos[i] = Centavos.deReais(precos[i]);
         }
-        return total;
+        return Centavos.paraReais(calcularValorCarrinhoCentavos(centavos));
+    }
+
+    // Lança ArithmeticException se o total estourar
+    public long calcularValorCarrinhoCentavos(long[] precosCentavos) {
+        return Centavos.somar(precosCentavos);
     }
 }
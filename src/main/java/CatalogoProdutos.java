@@ -0,0 +1,228 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Cópia em memória da tabela produtos, em colunas primitivas, para responder filtros sem ir ao banco
+public class CatalogoProdutos {
+
+    public static final int NOTA_NULA = Integer.MIN_VALUE;
+
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService agendador;
+
+    public boolean isCarregado() {
+        return snapshot != null;
+    }
+
+    public int getQuantidadeProdutos() {
+        Snapshot atual = snapshot;
+        return atual == null ? 0 : atual.nomes.length;
+    }
+
+    // Recarrega a tabela e troca o snapshot de uma vez; leitores continuam no anterior até a troca
+    public boolean atualizar() {
+        String sql = "SELECT nome, categoria, preco, nota FROM produtos";
+        List<String> nomes = new ArrayList<>();
+        List<String> categorias = new ArrayList<>();
+        double[] precos = new double[1024];
+        int[] notas = new int[1024];
+
+        Connection conn = PostgresConnection.conectar();
+        if (conn == null) {
+            return false;
+        }
+
+        try (conn; PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            conn.setAutoCommit(false);
+            stmt.setFetchSize(ProdutoDAO.TAMANHO_FETCH);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                int n = 0;
+                while (rs.next()) {
+                    if (n == precos.length) {
+                        precos = Arrays.copyOf(precos, n * 2);
+                        notas = Arrays.copyOf(notas, n * 2);
+                    }
+                    nomes.add(rs.getString("nome"));
+                    categorias.add(rs.getString("categoria"));
+                    precos[n] = rs.getDouble("preco");
+                    if (rs.wasNull()) {
+                        precos[n] = Double.NaN;
+                    }
+                    notas[n] = rs.getInt("nota");
+                    if (rs.wasNull()) {
+                        notas[n] = NOTA_NULA;
+                    }
+                    n++;
+                }
+            }
+            conn.commit();
+
+        } catch (SQLException e) {
+            System.out.println("Erro ao atualizar o catálogo de produtos: " + e.getMessage());
+            return false;
+        }
+
+        carregar(nomes.toArray(new String[0]), categorias.toArray(new String[0]),
+                Arrays.copyOf(precos, nomes.size()), Arrays.copyOf(notas, nomes.size()));
+        return true;
+    }
+
+    public void carregar(String[] nomes, String[] categorias, double[] precos, int[] notas) {
+        snapshot = new Snapshot(nomes, categorias, precos, notas);
+    }
+
+    public synchronized void iniciarAtualizacaoPeriodica(long periodoMillis) {
+        if (agendador != null) {
+            return;
+        }
+
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalogo-produtos");
+            t.setDaemon(true);
+            return t;
+        });
+        agendador.scheduleWithFixedDelay(this::atualizar, 0, periodoMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void pararAtualizacaoPeriodica() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    // Mesma semântica do SQL: categoria = ? AND preco BETWEEN ? AND ? [AND nota >= ?]
+    public List<String> filtrar(String categoria, double precoMin, double precoMax, Integer notaMin) {
+        Snapshot atual = snapshot;
+        List<String> resultados = new ArrayList<>();
+        if (atual == null || categoria == null) {
+            return resultados;
+        }
+
+        Integer id = atual.idsCategoria.get(categoria);
+        if (id == null) {
+            return resultados;
+        }
+
+        double[] precosOrdenados = atual.precosPorCategoria[id];
+        int[] linhas = atual.linhasPorCategoria[id];
+        for (int i = primeiroMaiorOuIgual(precosOrdenados, precoMin); i < precosOrdenados.length && precosOrdenados[i] <= precoMax; i++) {
+            int linha = linhas[i];
+            if (notaMin == null || (atual.notas[linha] != NOTA_NULA && atual.notas[linha] >= notaMin)) {
+                resultados.add(atual.nomes[linha]);
+            }
+        }
+        return resultados;
+    }
+
+    private static int primeiroMaiorOuIgual(double[] valores, double chave) {
+        int baixo = 0;
+        int alto = valores.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (valores[meio] < chave) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static final class Snapshot {
+        private final String[] nomes;
+        private final double[] precos;
+        private final int[] notas;
+        private final int[] categorias;
+        private final Map<String, Integer> idsCategoria = new HashMap<>();
+        private final double[][] precosPorCategoria;
+        private final int[][] linhasPorCategoria;
+
+        private Snapshot(String[] nomes, String[] categoriasTexto, double[] precos, int[] notas) {
+            this.nomes = nomes;
+            this.precos = precos;
+            this.notas = notas;
+            this.categorias = new int[nomes.length];
+
+            // Codificação por dicionário: cada categoria vira um id inteiro
+            int[] tamanhos = new int[16];
+            for (int i = 0; i < nomes.length; i++) {
+                int id = idsCategoria.computeIfAbsent(categoriasTexto[i], c -> idsCategoria.size());
+                categorias[i] = id;
+                if (id == tamanhos.length) {
+                    tamanhos = Arrays.copyOf(tamanhos, id * 2);
+                }
+                // Preço nulo nunca satisfaz o BETWEEN, então fica fora do índice
+                if (!Double.isNaN(precos[i])) {
+                    tamanhos[id]++;
+                }
+            }
+
+            precosPorCategoria = new double[idsCategoria.size()][];
+            linhasPorCategoria = new int[idsCategoria.size()][];
+            for (int id = 0; id < idsCategoria.size(); id++) {
+                precosPorCategoria[id] = new double[tamanhos[id]];
+                linhasPorCategoria[id] = new int[tamanhos[id]];
+            }
+
+            int[] posicoes = new int[idsCategoria.size()];
+            for (int i = 0; i < nomes.length; i++) {
+                if (!Double.isNaN(precos[i])) {
+                    int id = categorias[i];
+                    precosPorCategoria[id][posicoes[id]] = precos[i];
+                    linhasPorCategoria[id][posicoes[id]++] = i;
+                }
+            }
+
+            for (int id = 0; id < precosPorCategoria.length; id++) {
+                ordenar(precosPorCategoria[id], linhasPorCategoria[id], 0, precosPorCategoria[id].length - 1);
+            }
+        }
+
+        // Quicksort dos preços levando junto o número da linha, sem criar objetos por produto
+        private static void ordenar(double[] chaves, int[] linhas, int inicio, int fim) {
+            while (inicio < fim) {
+                double pivo = chaves[(inicio + fim) >>> 1];
+                int i = inicio;
+                int j = fim;
+                while (i <= j) {
+                    while (chaves[i] < pivo) {
+                        i++;
+                    }
+                    while (chaves[j] > pivo) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        double chave = chaves[i];
+                        chaves[i] = chaves[j];
+                        chaves[j] = chave;
+                        int linha = linhas[i];
+                        linhas[i] = linhas[j];
+                        linhas[j] = linha;
+                        i++;
+                        j--;
+                    }
+                }
+                // Recursão na parte menor para limitar a pilha
+                if (j - inicio < fim - i) {
+                    ordenar(chaves, linhas, inicio, j);
+                    inicio = i;
+                } else {
+                    ordenar(chaves, linhas, i, fim);
+                    fim = j;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+public final class Cep {
+
+    public static final int INVALIDO = -1;
+
+    private Cep() {
+    }
+
+    // Converte "ddddd-ddd" no inteiro de 8 dígitos sem criar objetos; retorna INVALIDO para outro formato
+    public static int parse(CharSequence cep) {
+        if (cep == null || cep.length() != 9 || cep.charAt(5) != '-') {
+            return INVALIDO;
+        }
+
+        int valor = 0;
+        for (int i = 0; i < 9; i++) {
+            if (i == 5) {
+                continue;
+            }
+            int digito = cep.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return INVALIDO;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+}
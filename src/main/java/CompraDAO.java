@@ -3,15 +3,39 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public class CompraDAO {
 
+    // Compartilhado entre as instâncias, para que uma recarga da tabela valha para todas
+    private static final FreteService FRETE_PADRAO = new FreteService();
+
+    // Espera máxima por espaço na fila antes de recusar a compra
+    private static final long ESPERA_FILA_MILLIS = 200;
+
+    private final FreteService freteService;
+    private final FilaCompras filaCompras;
+
+    public CompraDAO() {
+        this(FRETE_PADRAO);
+    }
+
+    public CompraDAO(FreteService freteService) {
+        this(freteService, null);
+    }
+
+    // Com uma fila, finalizarCompraPIXAsync grava as compras em lotes em vez de um commit por compra
+    public CompraDAO(FreteService freteService, FilaCompras filaCompras) {
+        this.freteService = freteService;
+        this.filaCompras = filaCompras;
+    }
+
     public double calcularTotalComFrete(double valorCarrinho, String cep) {
-        double frete = 0.0;
-        if ("11001-000".equals(cep)) {
-            frete = 15.00;
+        CotacaoFrete cotacao = freteService.cotarFrete(cep);
+        if (cotacao == null) {
+            return valorCarrinho; // CEP inválido ou fora das faixas atendidas
         }
-        return valorCarrinho + frete;
+        return valorCarrinho + cotacao.getValor();
     }
 
     public String finalizarCompraPIX(String email, String produto, double valorTotal) {
@@ -32,6 +56,14 @@ public class CompraDAO {
         }
     }
 
+    // O futuro completa quando a compra estiver gravada no banco, com a mesma mensagem de finalizarCompraPIX
+    public CompletableFuture<String> finalizarCompraPIXAsync(String email, String produto, double valorTotal) {
+        if (filaCompras == null) {
+            return CompletableFuture.completedFuture(finalizarCompraPIX(email, produto, valorTotal));
+        }
+        return filaCompras.enfileirar(email, produto, valorTotal, ESPERA_FILA_MILLIS);
+    }
+
     public boolean verificarCompra(String email, String produto) {
         String sql = "SELECT * FROM compras WHERE email = ? AND produto = ?";
         try (Connection conn = PostgresConnection.conectar();
@@ -39,8 +71,9 @@ public class CompraDAO {
 
             stmt.setString(1, email);
             stmt.setString(2, produto);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
 
         } catch (SQLException e) {
             return false;
@@ -0,0 +1,28 @@
+public final class CotacaoFrete {
+
+    private final long valorCentavos;
+    private final int prazoDias;
+
+    public CotacaoFrete(long valorCentavos, int prazoDias) {
+        this.valorCentavos = valorCentavos;
+        this.prazoDias = prazoDias;
+    }
+
+    public long getValorCentavos() {
+        return valorCentavos;
+    }
+
+    public double getValor() {
+        return valorCentavos / 100.0;
+    }
+
+    public int getPrazoDias() {
+        return prazoDias;
+    }
+
+    // Formato usado nas mensagens, ex.: R$15,00
+    public String getValorFormatado() {
+        long centavos = valorCentavos % 100;
+        return "R$" + (valorCentavos / 100) + (centavos < 10 ? ",0" : ",") + centavos;
+    }
+}
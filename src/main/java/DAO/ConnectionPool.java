@@ -0,0 +1,522 @@
+package DAO;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxConnections;
+    private final long borrowTimeoutNanos;
+    private final long leakThresholdNanos;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final ScheduledExecutorService leakDetector;
+
+    // O pool só é publicado (detector de vazamentos e MBean) depois de totalmente construído
+    public static ConnectionPool create(String name, String url, String user, String password,
+                                        int minIdle, int maxConnections, long borrowTimeoutMillis, long leakThresholdMillis,
+                                        int statementCacheSize) {
+        ConnectionPool pool = new ConnectionPool(name, url, user, password, minIdle, maxConnections,
+                borrowTimeoutMillis, leakThresholdMillis, statementCacheSize);
+        pool.start();
+        return pool;
+    }
+
+    private ConnectionPool(String name, String url, String user, String password,
+                           int minIdle, int maxConnections, long borrowTimeoutMillis, long leakThresholdMillis,
+                           int statementCacheSize) {
+        if (maxConnections <= 0 || minIdle < 0 || minIdle > maxConnections) {
+            throw new IllegalArgumentException("Tamanho do pool inválido!");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Tamanho do cache de statements inválido!");
+        }
+
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+        this.statementCacheSize = statementCacheSize;
+
+        if (leakThresholdMillis > 0) {
+            this.leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "pool-" + name + "-leak-detector");
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.leakDetector = null;
+        }
+
+        prewarm(minIdle);
+    }
+
+    private void start() {
+        if (this.leakDetector != null) {
+            long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(this.leakThresholdNanos) / 2);
+            this.leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+        registerMBean();
+    }
+
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + this.borrowTimeoutNanos;
+
+        try {
+            while (true) {
+                PooledConnection pc = this.idle.pollFirst();
+                if (pc == null) {
+                    pc = tryCreate();
+                }
+                if (pc == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Tempo esgotado aguardando conexão do pool " + this.name);
+                    }
+                    // Espera em fatias curtas para perceber vagas liberadas por conexões descartadas
+                    pc = this.idle.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    if (pc == null) {
+                        continue;
+                    }
+                }
+
+                if (isValid(pc)) {
+                    return checkout(pc);
+                }
+                discard(pc);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão do pool " + this.name, e);
+        } finally {
+            this.totalWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public void close() {
+        if (this.leakDetector != null) {
+            this.leakDetector.shutdownNow();
+        }
+
+        PooledConnection pc;
+        while ((pc = this.idle.pollFirst()) != null) {
+            discard(pc);
+        }
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return this.inUse.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return this.idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return this.total.get();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return this.borrowCount.get();
+    }
+
+    @Override
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalWaitNanos.get());
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long count = this.borrowCount.get();
+        return count == 0 ? 0 : (this.totalWaitNanos.get() / 1_000_000.0) / count;
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return this.leaksDetected.get();
+    }
+
+    private void prewarm(int minIdle) {
+        try {
+            for (int i = 0; i < minIdle; i++) {
+                PooledConnection pc = tryCreate();
+                if (pc == null) {
+                    break;
+                }
+                this.idle.offerLast(pc);
+            }
+        } catch (SQLException e) {
+            System.out.println("Erro ao pré-aquecer o pool " + this.name + ": " + e.getMessage());
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("DAO:type=ConnectionPool,name=" + ObjectName.quote(this.name));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            System.out.println("Não foi possível exportar as métricas do pool " + this.name + ": " + e.getMessage());
+        }
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        int current;
+        do {
+            current = this.total.get();
+            if (current >= this.maxConnections) {
+                return null;
+            }
+        } while (!this.total.compareAndSet(current, current + 1));
+
+        try {
+            return new PooledConnection(DriverManager.getConnection(this.url, this.user, this.password), this.statementCacheSize);
+        } catch (SQLException e) {
+            this.total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        // Conexões devolvidas há pouco tempo dispensam o round trip de validação
+        if (System.nanoTime() - pc.lastUsedNanos < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+
+        try {
+            return pc.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection checkout(PooledConnection pc) {
+        pc.borrowedAtNanos = System.nanoTime();
+        pc.borrowSite = this.leakDetector != null ? new Exception("Conexão obtida do pool " + this.name + " aqui") : null;
+        pc.leakReported = false;
+        this.inUse.add(pc);
+        this.borrowCount.incrementAndGet();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(pc));
+    }
+
+    private void release(PooledConnection pc) {
+        this.inUse.remove(pc);
+        pc.borrowSite = null;
+
+        try {
+            // Statements que o chamador esqueceu abertos voltam para o cache junto com a conexão
+            pc.closeCheckedOutStatements();
+            if (pc.physical.isClosed()) {
+                discard(pc);
+                return;
+            }
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(pc);
+            return;
+        }
+
+        pc.lastUsedNanos = System.nanoTime();
+        this.idle.offerFirst(pc);
+    }
+
+    private void discard(PooledConnection pc) {
+        this.total.decrementAndGet();
+        try {
+            pc.closeCachedStatements();
+            pc.physical.close();
+        } catch (SQLException e) {
+            // Conexão já estava inutilizável
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (PooledConnection pc : this.inUse) {
+            Exception site = pc.borrowSite;
+            if (!pc.leakReported && site != null && now - pc.borrowedAtNanos > this.leakThresholdNanos) {
+                pc.leakReported = true;
+                this.leaksDetected.incrementAndGet();
+                System.out.println("Possível vazamento de conexão no pool " + this.name + ": em uso há "
+                        + TimeUnit.NANOSECONDS.toMillis(now - pc.borrowedAtNanos) + " ms");
+                site.printStackTrace();
+            }
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection physical;
+        private final Map<StatementKey, PreparedStatement> statementCache;
+        private final List<StatementHandler> checkedOut = new ArrayList<>();
+        private volatile long lastUsedNanos;
+        private volatile long borrowedAtNanos;
+        private volatile Exception borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical, int statementCacheSize) {
+            this.physical = physical;
+            this.lastUsedNanos = System.nanoTime();
+            this.statementCache = new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private PreparedStatement prepare(Connection owner, StatementKey key) throws SQLException {
+            // O statement sai do cache enquanto está em uso, assim dois usos aninhados do mesmo SQL não o compartilham
+            PreparedStatement stm = this.statementCache.remove(key);
+            if (stm == null) {
+                stm = key.autoGeneratedKeys == null
+                        ? this.physical.prepareStatement(key.sql)
+                        : this.physical.prepareStatement(key.sql, key.autoGeneratedKeys);
+            }
+
+            StatementHandler handler = new StatementHandler(this, owner, key, stm);
+            this.checkedOut.add(handler);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    handler);
+        }
+
+        private void giveBack(StatementHandler handler) {
+            this.checkedOut.remove(handler);
+
+            try {
+                if (this.physical.isClosed() || this.statementCache.containsKey(handler.key)) {
+                    closeQuietly(handler.physical);
+                    return;
+                }
+                handler.physical.clearParameters();
+                handler.physical.clearBatch();
+                this.statementCache.put(handler.key, handler.physical);
+            } catch (SQLException e) {
+                closeQuietly(handler.physical);
+            }
+        }
+
+        private void closeCheckedOutStatements() {
+            for (StatementHandler handler : new ArrayList<>(this.checkedOut)) {
+                handler.close();
+            }
+        }
+
+        private void closeCachedStatements() {
+            for (PreparedStatement stm : this.statementCache.values()) {
+                closeQuietly(stm);
+            }
+            this.statementCache.clear();
+        }
+
+        private static void closeQuietly(AutoCloseable resource) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                // Recurso já estava fechado
+            }
+        }
+    }
+
+    private static final class StatementKey {
+        private final String sql;
+        private final Integer autoGeneratedKeys;
+
+        private StatementKey(String sql, Integer autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) o;
+            return this.sql.equals(other.sql) && Objects.equals(this.autoGeneratedKeys, other.autoGeneratedKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.sql.hashCode() + Objects.hashCode(this.autoGeneratedKeys);
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private final Connection owner;
+        private final StatementKey key;
+        private final PreparedStatement physical;
+        private final List<ResultSet> resultSets = new ArrayList<>(1);
+        private boolean closed;
+
+        private StatementHandler(PooledConnection pc, Connection owner, StatementKey key, PreparedStatement physical) {
+            this.pc = pc;
+            this.owner = owner;
+            this.key = key;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return this.closed;
+                case "getConnection":
+                    return this.owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + this.physical + "]";
+                default:
+                    break;
+            }
+
+            if (this.closed) {
+                throw new SQLException("Statement já foi fechado!");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(this.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof ResultSet) {
+                this.resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+
+            for (ResultSet rs : this.resultSets) {
+                PooledConnection.closeQuietly(rs);
+            }
+            this.resultSets.clear();
+            this.pc.giveBack(this);
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private volatile boolean closed;
+
+        private ConnectionHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!this.closed) {
+                        this.closed = true;
+                        release(this.pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return this.closed || this.pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + this.pc.physical + "]";
+                default:
+                    break;
+            }
+
+            if (this.closed) {
+                throw new SQLException("Conexão já devolvida ao pool!");
+            }
+
+            if (statementCacheSize > 0 && method.getName().equals("prepareStatement")) {
+                if (args.length == 1) {
+                    return this.pc.prepare((Connection) proxy, new StatementKey((String) args[0], null));
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return this.pc.prepare((Connection) proxy, new StatementKey((String) args[0], (Integer) args[1]));
+                }
+            }
+
+            try {
+                return method.invoke(this.pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package DAO;
+
+public interface ConnectionPoolMXBean {
+
+    public abstract int getActiveConnections();
+
+    public abstract int getIdleConnections();
+
+    public abstract int getTotalConnections();
+
+    public abstract int getMaxConnections();
+
+    public abstract long getBorrowCount();
+
+    public abstract long getTotalWaitMillis();
+
+    public abstract double getAverageWaitMillis();
+
+    public abstract long getLeaksDetected();
+
+}
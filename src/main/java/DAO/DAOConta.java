@@ -3,32 +3,48 @@ package DAO;
 import Model.Conta;
 import Model.UpdateException;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 public class DAOConta implements InterfaceDAO {
-    private Connection con;
 
-    public DAOConta() {
-        this.con = DBConnection.getConnection();
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private boolean atomicReplace = true;
+
+    public boolean isAtomicReplace() {
+        return this.atomicReplace;
+    }
+
+    public void setAtomicReplace(boolean atomicReplace) {
+        this.atomicReplace = atomicReplace;
     }
 
     public Conta insert(Conta conta) {
         String sql = "INSERT INTO conta (email, senha) VALUES (?,?)";
 
-        try {
-            PreparedStatement stm = this.con.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             stm.setString(1, conta.getEmail());
             stm.setString(2, conta.getSenha());
             if (stm.executeUpdate() > 0) {
-                ResultSet rs = stm.getGeneratedKeys();
-                if (rs.next()) {
-                    conta.setCodigo(rs.getInt(1));
-                    return conta;
+                try (ResultSet rs = stm.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        conta.setCodigo(rs.getInt(1));
+                        return conta;
+                    }
                 }
             }
             return null;
@@ -37,49 +53,241 @@ public class DAOConta implements InterfaceDAO {
         }
     }
 
-    @Override
-    public boolean update(Conta conta) {
-        Conta c = get(conta);
+    public List<Conta> insertAll(Collection<Conta> contas) {
+        return insertAll(contas, DEFAULT_BATCH_SIZE);
+    }
 
-        if (c == null) {
-            return false;
+    // Retorna, na ordem de entrada, a conta com o código gerado ou null para cada registro que falhou
+    public List<Conta> insertAll(Collection<Conta> contas, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote inválido!");
         }
 
-        StringBuilder sql = new StringBuilder("UPDATE conta SET ");
-        List<Object> values = new ArrayList<Object>();
-        if (!Objects.equals(conta.getEmail(), conta.getEmail())) {
-            sql.append("email = ? ");
-            values.add(conta.getEmail());
+        String sql = "INSERT INTO conta (email, senha) VALUES (?,?)";
+        List<Conta> resultado = new ArrayList<Conta>(contas.size());
+        List<Conta> lote = new ArrayList<Conta>(Math.min(batchSize, contas.size()));
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            con.setAutoCommit(false);
+
+            for (Conta conta : contas) {
+                lote.add(conta);
+                if (lote.size() == batchSize) {
+                    executeBatch(con, stm, lote, resultado);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                executeBatch(con, stm, lote, resultado);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
         }
-        if (!Objects.equals(conta.getSenha(), c.getSenha())) {
-            sql.append("senha = ? ");
-            values.add(c.getSenha());
+
+        while (resultado.size() < contas.size()) {
+            resultado.add(null);
         }
+        return resultado;
+    }
 
-        if (values.isEmpty()) {
-            throw new UpdateException("Não houve alteração dos dados da conta!");
+    // Mesmo contrato do insertAll via COPY. Os códigos são reservados na sequence antes da cópia
+    // e, como o COPY é tudo ou nada, uma falha anula todos os registros
+    public List<Conta> insertAllWithCopy(Collection<Conta> contas) {
+        List<Conta> validas = new ArrayList<Conta>(contas.size());
+        for (Conta conta : contas) {
+            if (conta != null) {
+                validas.add(conta);
+            }
         }
 
-        sql.setLength(sql.length() - 1);
-        sql.append(" WHERE codigo = ?");
-        values.add(c.getCodigo());
+        List<Conta> resultado = new ArrayList<Conta>(contas.size());
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            int[] codigos = reserveCodigos(con, validas.size());
+
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY conta (codigo, email, senha) FROM STDIN WITH (FORMAT csv)");
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 256);
+                for (int i = 0; i < validas.size(); i++) {
+                    buffer.append(codigos[i]).append(',');
+                    appendCsv(buffer, validas.get(i).getEmail());
+                    buffer.append(',');
+                    appendCsv(buffer, validas.get(i).getSenha());
+                    buffer.append('\n');
 
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        writeToCopy(copy, buffer);
+                    }
+                }
+                writeToCopy(copy, buffer);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+            con.commit();
+
+            for (int i = 0; i < validas.size(); i++) {
+                validas.get(i).setCodigo(codigos[i]);
+            }
+            resultado.addAll(contas);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultado.clear();
+            while (resultado.size() < contas.size()) {
+                resultado.add(null);
+            }
+        }
+
+        return resultado;
+    }
+
+    private void executeBatch(Connection con, PreparedStatement stm, List<Conta> lote, List<Conta> resultado) throws SQLException {
         try {
-            PreparedStatement stm = con.prepareStatement(sql.toString());
+            for (Conta conta : lote) {
+                if (conta != null) {
+                    stm.setString(1, conta.getEmail());
+                    stm.setString(2, conta.getSenha());
+                    stm.addBatch();
+                }
+            }
+            stm.executeBatch();
 
-            for (int i = 0; i < values.size(); i++) {
-                stm.setObject(i + 1, values.get(i));
+            List<Integer> codigos = new ArrayList<Integer>(lote.size());
+            try (ResultSet rs = stm.getGeneratedKeys()) {
+                while (rs.next()) {
+                    codigos.add(rs.getInt(1));
+                }
             }
+            con.commit();
 
-            return stm.executeUpdate() > 0;
+            int i = 0;
+            for (Conta conta : lote) {
+                if (conta != null) {
+                    conta.setCodigo(codigos.get(i++));
+                }
+                resultado.add(conta);
+            }
+        } catch (BatchUpdateException e) {
+            con.rollback();
+            stm.clearBatch();
+
+            // Um registro inválido aborta o lote inteiro, então o lote é refeito linha a linha para reportar cada conta
+            for (Conta conta : lote) {
+                resultado.add(insertInTransaction(con, stm, conta));
+            }
+        }
+    }
+
+    private Conta insertInTransaction(Connection con, PreparedStatement stm, Conta conta) throws SQLException {
+        if (conta == null) {
+            return null;
+        }
+
+        try {
+            stm.setString(1, conta.getEmail());
+            stm.setString(2, conta.getSenha());
+            stm.executeUpdate();
+
+            try (ResultSet rs = stm.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    con.rollback();
+                    return null;
+                }
+                int codigo = rs.getInt(1);
+                con.commit();
+                conta.setCodigo(codigo);
+                return conta;
+            }
+        } catch (SQLException e) {
+            con.rollback();
+            return null;
+        }
+    }
+
+    private int[] reserveCodigos(Connection con, int quantidade) throws SQLException {
+        String sql = "SELECT nextval(pg_get_serial_sequence('conta', 'codigo')) FROM generate_series(1, ?)";
+        int[] codigos = new int[quantidade];
+
+        try (PreparedStatement stm = con.prepareStatement(sql)) {
+            stm.setInt(1, quantidade);
+            try (ResultSet rs = stm.executeQuery()) {
+                for (int i = 0; i < quantidade && rs.next(); i++) {
+                    codigos[i] = rs.getInt(1);
+                }
+            }
+        }
+        return codigos;
+    }
+
+    private static void appendCsv(StringBuilder buffer, String valor) {
+        // Campo vazio sem aspas é NULL no formato csv do COPY
+        if (valor == null) {
+            return;
+        }
+
+        buffer.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    @Override
+    public boolean update(Conta conta) {
+        // SQL de formato fixo: a comparação com os dados atuais acontece no próprio banco
+        String sql = "UPDATE conta SET email = ?, senha = ? " +
+                "WHERE codigo = ? AND (email IS DISTINCT FROM ? OR senha IS DISTINCT FROM ?) RETURNING codigo";
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql)) {
+            stm.setString(1, conta.getEmail());
+            stm.setString(2, conta.getSenha());
+            stm.setInt(3, conta.getCodigo());
+            stm.setString(4, conta.getEmail());
+            stm.setString(5, conta.getSenha());
+
+            try (ResultSet rs = stm.executeQuery()) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
+
+        // Nenhuma linha alterada: só consulta a conta para diferenciar inexistente de sem alteração
+        if (get(conta) == null) {
+            return false;
+        }
+
+        throw new UpdateException("Não houve alteração dos dados da conta!");
     }
 
     @Override
     public boolean updateWithDrop(Conta conta) {
+        if (this.atomicReplace) {
+            return replace(conta);
+        }
+
         Conta c = get(conta);
 
         if (c == null || !delete(conta)) {
@@ -93,21 +301,46 @@ public class DAOConta implements InterfaceDAO {
         }
     }
 
+    // Remove e recria a conta em um único comando, então leitores nunca a veem ausente
+    private boolean replace(Conta conta) {
+        String sql = "WITH removida AS (DELETE FROM conta WHERE codigo = ? RETURNING codigo) " +
+                "INSERT INTO conta (email, senha) SELECT ?, ? FROM removida RETURNING codigo";
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql)) {
+            stm.setInt(1, conta.getCodigo());
+            stm.setString(2, conta.getEmail());
+            stm.setString(3, conta.getSenha());
+
+            try (ResultSet rs = stm.executeQuery()) {
+                if (rs.next()) {
+                    conta.setCodigo(rs.getInt(1));
+                    return true;
+                }
+            }
+
+            return false;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     public Conta get(Conta conta) {
         String sql = "SELECT * FROM conta WHERE codigo = ?";
 
-        try {
-            PreparedStatement stm = this.con.prepareStatement(sql);
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql)) {
             stm.setInt(1, conta.getCodigo());
-            ResultSet rs = stm.executeQuery();
-
-            if (rs.next()) {
-                Conta c = new Conta();
-                c.setCodigo(rs.getInt("codigo"));
-                c.setEmail(rs.getString("email"));
-                c.setSenha(rs.getString("senha"));
+            try (ResultSet rs = stm.executeQuery()) {
+                if (rs.next()) {
+                    Conta c = new Conta();
+                    c.setCodigo(rs.getInt("codigo"));
+                    c.setEmail(rs.getString("email"));
+                    c.setSenha(rs.getString("senha"));
 
-                return c;
+                    return c;
+                }
             }
 
             return null;
@@ -120,8 +353,8 @@ public class DAOConta implements InterfaceDAO {
     public boolean delete(Conta conta) {
         String sql = "DELETE FROM conta WHERE codigo = ?";
 
-        try {
-            PreparedStatement stm = this.con.prepareStatement(sql);
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(sql)) {
             stm.setInt(1, conta.getCodigo());
             return stm.executeUpdate() > 0;
         } catch (Exception e) {
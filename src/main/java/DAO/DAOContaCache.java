@@ -0,0 +1,172 @@
+package DAO;
+
+import Model.Conta;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class DAOContaCache implements InterfaceDAO {
+
+    private final DAOConta dao;
+    private final long ttlNanos;
+    private final LongSupplier relogioNanos;
+    private final Map<Integer, Entrada> entradas;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    // Incrementado a cada escrita para descartar leituras do banco iniciadas antes dela
+    private long versao;
+
+    public DAOContaCache(DAOConta dao, int maxEntries, long ttlMillis) {
+        this(dao, maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    // O relógio é injetável para que a expiração possa ser testada sem depender do tempo real
+    public DAOContaCache(DAOConta dao, int maxEntries, long ttlMillis, LongSupplier relogioNanos) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Configuração do cache de contas inválida!");
+        }
+
+        this.dao = dao;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.relogioNanos = relogioNanos;
+        this.entradas = new LinkedHashMap<Integer, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Conta get(Conta conta) {
+        int codigo = conta.getCodigo();
+        long versaoLeitura;
+
+        synchronized (this) {
+            Entrada entrada = this.entradas.get(codigo);
+            if (entrada != null) {
+                if (this.relogioNanos.getAsLong() - entrada.carregadaEm < this.ttlNanos) {
+                    this.hits++;
+                    return copia(entrada.conta);
+                }
+                this.entradas.remove(codigo);
+                this.evictions++;
+            }
+            this.misses++;
+            versaoLeitura = this.versao;
+        }
+
+        Conta c = this.dao.get(conta);
+
+        if (c != null) {
+            synchronized (this) {
+                if (this.versao == versaoLeitura) {
+                    this.entradas.put(codigo, new Entrada(copia(c), this.relogioNanos.getAsLong()));
+                }
+            }
+        }
+        return c;
+    }
+
+    public Conta insert(Conta conta) {
+        Conta c = this.dao.insert(conta);
+
+        if (c != null) {
+            atualizar(c.getCodigo(), c);
+        }
+        return c;
+    }
+
+    @Override
+    public boolean update(Conta conta) {
+        boolean sucesso = this.dao.update(conta);
+
+        if (sucesso) {
+            atualizar(conta.getCodigo(), conta);
+        } else {
+            invalidar(conta.getCodigo());
+        }
+        return sucesso;
+    }
+
+    @Override
+    public boolean updateWithDrop(Conta conta) {
+        int codigoAnterior = conta.getCodigo();
+        boolean sucesso = this.dao.updateWithDrop(conta);
+
+        // A conta é recriada com um novo código, então a entrada anterior nunca é reaproveitada
+        invalidar(codigoAnterior);
+        if (sucesso) {
+            atualizar(conta.getCodigo(), conta);
+        }
+        return sucesso;
+    }
+
+    public boolean delete(Conta conta) {
+        boolean sucesso = this.dao.delete(conta);
+        invalidar(conta.getCodigo());
+        return sucesso;
+    }
+
+    public synchronized void invalidar(int codigo) {
+        this.versao++;
+        this.entradas.remove(codigo);
+    }
+
+    public synchronized void invalidarTodos() {
+        this.versao++;
+        this.entradas.clear();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized int getSize() {
+        return this.entradas.size();
+    }
+
+    public synchronized double getHitRatio() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+
+    private synchronized void atualizar(int codigo, Conta conta) {
+        this.versao++;
+        this.entradas.put(codigo, new Entrada(copia(conta), this.relogioNanos.getAsLong()));
+    }
+
+    // O cache guarda cópias, já que Conta é mutável e os chamadores alteram o objeto retornado
+    private static Conta copia(Conta conta) {
+        Conta c = new Conta();
+        c.setCodigo(conta.getCodigo());
+        c.setEmail(conta.getEmail());
+        c.setSenha(conta.getSenha());
+        return c;
+    }
+
+    private static final class Entrada {
+        private final Conta conta;
+        private final long carregadaEm;
+
+        private Entrada(Conta conta, long carregadaEm) {
+            this.conta = conta;
+            this.carregadaEm = carregadaEm;
+        }
+    }
+}
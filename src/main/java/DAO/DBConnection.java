@@ -1,7 +1,6 @@
 package DAO;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
@@ -10,12 +9,25 @@ public class DBConnection {
     private static final String USER = "postgres";
     private static final String PASSWORD = "admin";
 
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 5000;
+    private static final long POOL_LEAK_THRESHOLD_MILLIS = 30000;
+    private static final int POOL_STATEMENT_CACHE_SIZE = 64;
+
+    private static final ConnectionPool POOL = ConnectionPool.create("testessoftware", URL, USER, PASSWORD,
+            POOL_MIN_IDLE, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MILLIS, POOL_LEAK_THRESHOLD_MILLIS, POOL_STATEMENT_CACHE_SIZE);
+
     public static Connection getConnection() {
         try {
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            return POOL.getConnection();
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
         }
     }
+
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
 }
@@ -1,17 +1,37 @@
-import java.util.HashSet;
-import java.util.Set;
+import Enum.EnumCadastroEndereco;
 
 public class EnderecoService {
-    private Set<String> enderecosCadastrados = new HashSet<>(); //Armazena os endereços cadastrados e evita que haja endereços duplicados
+
+    // Começa pequeno (512 KB) e dobra conforme enche; só recusa endereços ao chegar em CAPACIDADE_LIMITE posições
+    private static final int CAPACIDADE_INICIAL_PADRAO = 1 << 16;
+
+    private final CadastroEnderecos enderecosCadastrados; //Armazena os endereços cadastrados e evita que haja endereços duplicados
+
+    public EnderecoService() {
+        this(CAPACIDADE_INICIAL_PADRAO, CadastroEnderecos.CAPACIDADE_LIMITE);
+    }
+
+    // Capacidades em posições da tabela (potências de 2); cabem até 90% de capacidadeMaxima endereços
+    public EnderecoService(int capacidadeInicial, int capacidadeMaxima) {
+        this(new CadastroEnderecos(capacidadeInicial, capacidadeMaxima, 0));
+    }
+
+    public EnderecoService(CadastroEnderecos enderecosCadastrados) {
+        this.enderecosCadastrados = enderecosCadastrados;
+    }
 
     public String adicionarEndereco(String endereco) {
         if (endereco == null || !endereco.toLowerCase().contains("rua")) {
             return "Endereço inválido";
         }
-        if (enderecosCadastrados.contains(endereco)) { //Verifica se o endereço já foi cadastrado
+
+        EnumCadastroEndereco resultado = enderecosCadastrados.adicionar(endereco);
+        if (resultado == EnumCadastroEndereco.DUPLICADO) { //Verifica se o endereço já foi cadastrado (ignorando caixa, acentos e espaços)
             return "Endereço já cadastrado";
         }
-        enderecosCadastrados.add(endereco);
+        if (resultado == EnumCadastroEndereco.CHEIO) {
+            return "Cadastro de endereços cheio";
+        }
         return "Endereço adicionado com sucesso";
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package Enum;
+
+public enum EnumCadastroEndereco {
+    ADICIONADO,
+    DUPLICADO,
+    CHEIO;
+
+}
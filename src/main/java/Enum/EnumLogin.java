@@ -0,0 +1,8 @@
+package Enum;
+
+public enum EnumLogin {
+    VALIDO,
+    INVALIDO,
+    LIMITADO;
+
+}
@@ -0,0 +1,226 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Gravação adiada das compras PIX: os pedidos entram numa fila limitada e uma thread os grava em lotes, com um
+// INSERT de várias linhas e um único commit por lote. O futuro de cada compra só completa depois do commit.
+public class FilaCompras implements AutoCloseable {
+
+    public static final String SUCESSO = "Compra realizada com sucesso via PIX";
+    public static final String ERRO = "Erro ao finalizar compra";
+    public static final String FILA_CHEIA = "Muitas compras em andamento, tente novamente";
+
+    private static final String INSERT = "INSERT INTO compras (email, produto, valor_total, forma_pagamento, status) VALUES ";
+    private static final String LINHA = "(?, ?, ?, 'PIX', 'confirmada')";
+
+    private final BlockingQueue<Pedido> fila;
+    private final int tamanhoLote;
+    private final Supplier<Connection> conexoes;
+    private final Thread gravador;
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder gravadas = new LongAdder();
+
+    // Quem enfileira segura a leitura e o fechamento, a escrita: depois que aberta vira false, nenhuma compra pode
+    // entrar na fila sem que o gravador a veja
+    private final ReadWriteLock estado = new ReentrantReadWriteLock();
+    private volatile boolean aberta = true;
+
+    public FilaCompras(int capacidade, int tamanhoLote) {
+        this(capacidade, tamanhoLote, PostgresConnection::conectar);
+    }
+
+    public FilaCompras(int capacidade, int tamanhoLote, Supplier<Connection> conexoes) {
+        if (capacidade <= 0 || tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Capacidade e tamanho do lote devem ser positivos");
+        }
+
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.conexoes = conexoes;
+        this.gravador = new Thread(this::gravar, "fila-compras");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    // Com a fila cheia, espera até esperaMaximaMillis por espaço; se não houver, o futuro completa com FILA_CHEIA
+    public CompletableFuture<String> enfileirar(String email, String produto, double valorTotal, long esperaMaximaMillis) {
+        Pedido pedido = new Pedido(email, produto, valorTotal);
+        estado.readLock().lock();
+        try {
+            // Sem o gravador ninguém completaria o futuro, mesmo que ele tenha parado por um caminho que não fechou a fila
+            if (!aberta || !gravador.isAlive()) {
+                pedido.resultado.complete(ERRO);
+            } else if (!fila.offer(pedido, esperaMaximaMillis, TimeUnit.MILLISECONDS)) {
+                pedido.resultado.complete(FILA_CHEIA);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pedido.resultado.complete(FILA_CHEIA);
+        } finally {
+            estado.readLock().unlock();
+        }
+        return pedido.resultado;
+    }
+
+    public int getPendentes() {
+        return fila.size();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getGravadas() {
+        return gravadas.sum();
+    }
+
+    // Para de aceitar compras e grava o que já estava na fila antes de retornar
+    @Override
+    public void close() {
+        fechar();
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fechar() {
+        estado.writeLock().lock();
+        try {
+            aberta = false;
+        } finally {
+            estado.writeLock().unlock();
+        }
+    }
+
+    private void gravar() {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        try {
+            while (aberta || !fila.isEmpty()) {
+                try {
+                    Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        continue;
+                    }
+                    // O lote é o que se acumulou enquanto o commit anterior estava em andamento
+                    lote.add(primeiro);
+                    fila.drainTo(lote, tamanhoLote - 1);
+                    gravarLote(lote);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable e) {
+                    falhar(lote);
+                } finally {
+                    lote.clear();
+                }
+            }
+        } finally {
+            // Gravador encerrado (fechamento ou interrupção): nada mais entra e o que sobrou na fila é recusado
+            fechar();
+            fila.drainTo(lote);
+            falhar(lote);
+        }
+    }
+
+    private static void falhar(List<Pedido> lote) {
+        for (Pedido pedido : lote) {
+            pedido.resultado.complete(ERRO);
+        }
+    }
+
+    private void gravarLote(List<Pedido> lote) {
+        Connection conn = conexoes.get();
+        if (conn == null) {
+            falhar(lote);
+            return;
+        }
+
+        try (conn) {
+            conn.setAutoCommit(false);
+            try {
+                inserir(conn, lote);
+            } catch (SQLException e) {
+                conn.rollback();
+                if (lote.size() == 1) {
+                    falhar(lote);
+                    return;
+                }
+                // Uma linha ruim derruba o lote inteiro; regrava uma a uma para isolar a falha
+                for (Pedido pedido : lote) {
+                    gravarSozinho(conn, pedido);
+                }
+                return;
+            }
+
+            // Se o commit falhar, o servidor pode ou não ter gravado o lote; regravar poderia duplicar compras
+            conn.commit();
+            commits.increment();
+            gravadas.add(lote.size());
+            for (Pedido pedido : lote) {
+                pedido.resultado.complete(SUCESSO);
+            }
+        } catch (SQLException e) {
+            falhar(lote);
+        }
+    }
+
+    private void gravarSozinho(Connection conn, Pedido pedido) throws SQLException {
+        try {
+            inserir(conn, List.of(pedido));
+        } catch (SQLException e) {
+            conn.rollback();
+            pedido.resultado.complete(ERRO);
+            return;
+        }
+
+        conn.commit();
+        commits.increment();
+        gravadas.increment();
+        pedido.resultado.complete(SUCESSO);
+    }
+
+    private static void inserir(Connection conn, List<Pedido> lote) throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT.length() + lote.size() * (LINHA.length() + 2)).append(INSERT);
+        for (int i = 0; i < lote.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(LINHA);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int indice = 1;
+            for (Pedido pedido : lote) {
+                stmt.setString(indice++, pedido.email);
+                stmt.setString(indice++, pedido.produto);
+                stmt.setDouble(indice++, pedido.valorTotal);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static final class Pedido {
+        private final String email;
+        private final String produto;
+        private final double valorTotal;
+        private final CompletableFuture<String> resultado = new CompletableFuture<>();
+
+        private Pedido(String email, String produto, double valorTotal) {
+            this.email = email;
+            this.produto = produto;
+            this.valorTotal = valorTotal;
+        }
+    }
+}
@@ -1,12 +1,45 @@
 public class FreteService {
+
+    // A cotação é uma busca binária sem alocação sobre a tabela de faixas, mais barata que qualquer cache na frente dela;
+    // recarregar só troca a referência
+    private volatile TabelaFrete tabela;
+
+    public FreteService() {
+        this(TabelaFrete.padrao());
+    }
+
+    public FreteService(TabelaFrete tabela) {
+        this.tabela = tabela;
+    }
+
+    public CotacaoFrete cotarFrete(String cep) {
+        int valor = Cep.parse(cep); //Valida se o CEP é correto
+        if (valor == Cep.INVALIDO) {
+            return null;
+        }
+        return tabela.cotar(valor);
+    }
+
     public String calcularFrete(String cep) {
-        if (cep == null || !cep.matches("\\d{5}-\\d{3}")) { //Valida se o CEP é correto
+        CotacaoFrete cotacao = cotarFrete(cep);
+        if (cotacao == null) {
             return "Nenhuma opção de envio encontrada";
         }
         else{
-            return "Frete: R$15,00";
+            return "Frete: " + cotacao.getValorFormatado();
         }
+    }
 
+    // Troca a tabela de frete; as cotações seguintes já usam a nova
+    public void recarregarTabela(TabelaFrete tabela) {
+        this.tabela = tabela;
+    }
+
+    public void recarregarTabela() {
+        recarregarTabela(TabelaFrete.carregarPadrao());
+    }
 
+    public TabelaFrete getTabela() {
+        return tabela;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de trigramas para busca por substring (mesma semântica do String.contains)
+public class IndiceTrigramas {
+
+    private static final int[] VAZIO = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postagens> postagens = new HashMap<>();
+    private final Map<String, List<Integer>> idsPorNome = new HashMap<>();
+    private String[] nomes = new String[16];
+    private int proximoId;
+    private int ativos;
+
+    public void adicionar(String nome) {
+        lock.writeLock().lock();
+        try {
+            if (proximoId == nomes.length) {
+                nomes = Arrays.copyOf(nomes, nomes.length * 2);
+            }
+
+            // Os ids crescem com a ordem de inserção, então as postagens ficam ordenadas e a busca preserva a ordem da lista
+            int id = proximoId++;
+            nomes[id] = nome;
+            ativos++;
+            idsPorNome.computeIfAbsent(nome, n -> new ArrayList<>(1)).add(id);
+
+            for (int i = 0; i + 3 <= nome.length(); i++) {
+                postagens.computeIfAbsent(trigrama(nome, i), t -> new Postagens()).adicionar(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void adicionarTodos(Collection<String> nomes) {
+        for (String nome : nomes) {
+            adicionar(nome);
+        }
+    }
+
+    // Remove a primeira ocorrência do nome, como List.remove
+    public boolean remover(String nome) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> ids = idsPorNome.get(nome);
+            if (ids == null) {
+                return false;
+            }
+
+            int id = ids.remove(0);
+            if (ids.isEmpty()) {
+                idsPorNome.remove(nome);
+            }
+            nomes[id] = null;
+            ativos--;
+
+            for (int i = 0; i + 3 <= nome.length(); i++) {
+                Long chave = trigrama(nome, i);
+                Postagens p = postagens.get(chave);
+                if (p != null && p.remover(id) && p.tamanho == 0) {
+                    postagens.remove(chave);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getTamanho() {
+        lock.readLock().lock();
+        try {
+            return ativos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> buscar(String termo) {
+        lock.readLock().lock();
+        try {
+            if (termo.length() < 3) {
+                return varrer(termo);
+            }
+
+            int[][] listas = new int[termo.length() - 2][];
+            int[] tamanhos = new int[listas.length];
+            for (int i = 0; i < listas.length; i++) {
+                Postagens p = postagens.get(trigrama(termo, i));
+                if (p == null) {
+                    return new ArrayList<>();
+                }
+                listas[i] = p.ids;
+                tamanhos[i] = p.tamanho;
+            }
+
+            int[] candidatos = interseccao(listas, tamanhos);
+
+            // A interseção só garante que todos os trigramas aparecem; o contains confirma a posição
+            List<String> resultado = new ArrayList<>();
+            for (int id : candidatos) {
+                String nome = nomes[id];
+                if (nome.contains(termo)) {
+                    resultado.add(nome);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> varrer(String termo) {
+        List<String> resultado = new ArrayList<>();
+        for (int id = 0; id < proximoId; id++) {
+            String nome = nomes[id];
+            if (nome != null && nome.contains(termo)) {
+                resultado.add(nome);
+            }
+        }
+        return resultado;
+    }
+
+    // Interseção começando pela menor lista, com busca binária nas demais
+    private static int[] interseccao(int[][] listas, int[] tamanhos) {
+        int menor = 0;
+        for (int i = 1; i < listas.length; i++) {
+            if (tamanhos[i] < tamanhos[menor]) {
+                menor = i;
+            }
+        }
+
+        int[] atual = Arrays.copyOf(listas[menor], tamanhos[menor]);
+        int n = atual.length;
+        for (int i = 0; i < listas.length && n > 0; i++) {
+            if (i == menor || listas[i] == listas[menor]) {
+                continue;
+            }
+
+            int k = 0;
+            int inicio = 0;
+            for (int j = 0; j < n; j++) {
+                int pos = Arrays.binarySearch(listas[i], inicio, tamanhos[i], atual[j]);
+                if (pos >= 0) {
+                    atual[k++] = atual[j];
+                    inicio = pos + 1;
+                } else {
+                    inicio = -pos - 1;
+                }
+            }
+            n = k;
+        }
+        return n == 0 ? VAZIO : Arrays.copyOf(atual, n);
+    }
+
+    private static Long trigrama(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static final class Postagens {
+        private int[] ids = new int[4];
+        private int tamanho;
+
+        private void adicionar(int id) {
+            // Um nome com o mesmo trigrama repetido gera uma única postagem
+            if (tamanho > 0 && ids[tamanho - 1] == id) {
+                return;
+            }
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+            }
+            ids[tamanho++] = id;
+        }
+
+        private boolean remover(int id) {
+            int pos = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, tamanho - pos - 1);
+            tamanho--;
+            return true;
+        }
+    }
+}
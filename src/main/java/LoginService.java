@@ -1,23 +1,57 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LoginService {
 
-    List<Usuario> usuariosCadastrados = new ArrayList<>();
+    // E-mail normalizado -> senha. Leituras no ConcurrentHashMap não bloqueiam, nem durante cadastros
+    private final Map<String, String> credenciais;
 
     public LoginService() {
+        this(16);
+    }
+
+    public LoginService(int capacidadeEsperada) {
+        // O construtor do ConcurrentHashMap já considera o fator de carga ao dimensionar a tabela
+        this.credenciais = new ConcurrentHashMap<>(Math.max(16, capacidadeEsperada));
 
-        //"Mockando" um DB
-        usuariosCadastrados.add(new Usuario("lucasteste@email.com", "123456"));
+        //"Mockando" um DB (direto no mapa, sem chamar métodos sobrescrevíveis durante a construção)
+        credenciais.put(normalizarEmail("lucasteste@email.com"), "123456");
     }
 
-    public boolean realizarLogin(String email, String senha) {
-        for (Usuario u : usuariosCadastrados) {
-            if (u.getEmail().equals(email) && u.getSenha().equals(senha)) {
-                return true; // Login bem-sucedido
+    public boolean cadastrarUsuario(Usuario usuario) {
+        if (usuario == null || usuario.getEmail() == null || usuario.getSenha() == null) {
+            return false;
+        }
+        return credenciais.putIfAbsent(normalizarEmail(usuario.getEmail()), usuario.getSenha()) == null;
+    }
+
+    // Carga em massa: o mapa deve ser criado com a capacidade esperada para evitar rehash
+    public int carregarUsuarios(Collection<Usuario> usuarios) {
+        int carregados = 0;
+        for (Usuario u : usuarios) {
+            if (cadastrarUsuario(u)) {
+                carregados++;
             }
         }
-        return false; // Falha no login
+        return carregados;
     }
-}
 
+    public int getQuantidadeUsuarios() {
+        return credenciais.size();
+    }
+
+    public boolean realizarLogin(String email, String senha) {
+        if (email == null || senha == null) {
+            return false; // Falha no login
+        }
+
+        String senhaCadastrada = credenciais.get(normalizarEmail(email));
+        return senha.equals(senhaCadastrada); // Login bem-sucedido quando as senhas conferem
+    }
+
+    static String normalizarEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,10 +2,32 @@ package Model.Bo;
 
 import Model.ModelCarrinho;
 
+import java.util.BitSet;
+import java.util.List;
+
 public class ModelBoCarrinho {
 
+    // Trocadas por inteiro na recarga; avaliações em andamento terminam com as regras que já tinham lido
+    private static volatile RegrasFreteGratis regras = RegrasFreteGratis.carregarPadrao();
+
     public static boolean isElegivelFreteGratis(ModelCarrinho carrinho) {
-        return ((carrinho.getNomeComerciante().equals("Amazon.com.br")) && (carrinho.getValorTotal() >= 100));
+        return regras.isElegivel(carrinho);
+    }
+
+    public static BitSet avaliarFreteGratis(List<ModelCarrinho> carrinhos) {
+        return regras.avaliar(carrinhos);
+    }
+
+    public static void recarregarRegrasFreteGratis(RegrasFreteGratis novasRegras) {
+        regras = novasRegras;
+    }
+
+    public static void recarregarRegrasFreteGratis() {
+        regras = RegrasFreteGratis.carregarPadrao();
+    }
+
+    public static RegrasFreteGratis getRegrasFreteGratis() {
+        return regras;
     }
 
 }
@@ -1,15 +1,116 @@
 package Model.Bo;
 
+import Model.Centavos;
 import Model.ModelProduto;
 import Model.PercentualException;
 
+import java.util.BitSet;
+import java.util.concurrent.RecursiveAction;
+
 public class ModelBoDesconto {
 
+    // A partir daqui o lote é dividido entre os núcleos; os trechos são múltiplos de 64 para cada um escrever
+    // palavras próprias do bitmap de inválidos
+    private static final int LIMIAR_PARALELO = 1 << 15;
+    private static final int TAMANHO_TRECHO = 1 << 13;
+    private static final long MAXIMO_CENTAVOS = Long.MAX_VALUE / Centavos.PONTOS_BASE_POR_CEM_PORCENTO;
+
     public static double calcularDesconto(ModelProduto produto, double percentualDesconto) throws PercentualException {
         if ((percentualDesconto < 0) || (percentualDesconto > 100)) {
             throw new PercentualException("Percentual de desconto inválido!");
         }
 
-        return produto.getValor() - (produto.getValor() * (percentualDesconto / 100));
+        // Percentual com até duas casas decimais, convertido para pontos-base
+        return Centavos.paraReais(calcularDescontoCentavos(produto, Math.round(percentualDesconto * 100)));
+    }
+
+    public static long calcularDescontoCentavos(ModelProduto produto, long pontosBase) throws PercentualException {
+        if ((pontosBase < 0) || (pontosBase > Centavos.PONTOS_BASE_POR_CEM_PORCENTO)) {
+            throw new PercentualException("Percentual de desconto inválido!");
+        }
+
+        return Centavos.aplicarDesconto(produto.getValorCentavos(), pontosBase);
+    }
+
+    // Mesmo percentual para o lote todo: validado uma vez só, antes de percorrer os preços
+    public static BitSet calcularDescontos(long[] precosCentavos, long pontosBase, long[] resultadoCentavos) throws PercentualException {
+        if ((pontosBase < 0) || (pontosBase > Centavos.PONTOS_BASE_POR_CEM_PORCENTO)) {
+            throw new PercentualException("Percentual de desconto inválido!");
+        }
+        return calcularDescontos(precosCentavos, null, pontosBase, resultadoCentavos);
+    }
+
+    // Percentual por linha. Linhas com percentual ou preço inválido não lançam exceção: ficam marcadas no bitmap
+    // retornado e mantêm o preço original no resultado
+    public static BitSet calcularDescontos(long[] precosCentavos, long[] pontosBase, long[] resultadoCentavos) {
+        if (pontosBase.length != precosCentavos.length) {
+            throw new IllegalArgumentException("Preços e percentuais devem ter o mesmo tamanho");
+        }
+        return calcularDescontos(precosCentavos, pontosBase, 0, resultadoCentavos);
+    }
+
+    private static BitSet calcularDescontos(long[] precos, long[] pontosBase, long pontosBaseUnico, long[] resultado) {
+        if (resultado.length < precos.length) {
+            throw new IllegalArgumentException("Vetor de resultado menor que o de preços");
+        }
+
+        long[] invalidos = new long[(precos.length + 63) >>> 6];
+        Lote lote = new Lote(precos, pontosBase, pontosBaseUnico, resultado, invalidos, 0, precos.length);
+        if (precos.length < LIMIAR_PARALELO) {
+            lote.calcular();
+        } else {
+            lote.invoke();
+        }
+        return BitSet.valueOf(invalidos);
+    }
+
+    private static final class Lote extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] precos;
+        private final long[] pontosBase;
+        private final long pontosBaseUnico;
+        private final long[] resultado;
+        private final long[] invalidos;
+        private final int inicio;
+        private final int fim;
+
+        private Lote(long[] precos, long[] pontosBase, long pontosBaseUnico, long[] resultado, long[] invalidos,
+                     int inicio, int fim) {
+            this.precos = precos;
+            this.pontosBase = pontosBase;
+            this.pontosBaseUnico = pontosBaseUnico;
+            this.resultado = resultado;
+            this.invalidos = invalidos;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= TAMANHO_TRECHO) {
+                calcular();
+                return;
+            }
+
+            int meio = inicio + Math.max(TAMANHO_TRECHO, ((fim - inicio) >>> 1) & ~(TAMANHO_TRECHO - 1));
+            invokeAll(new Lote(precos, pontosBase, pontosBaseUnico, resultado, invalidos, inicio, meio),
+                    new Lote(precos, pontosBase, pontosBaseUnico, resultado, invalidos, meio, fim));
+        }
+
+        private void calcular() {
+            long metade = Centavos.PONTOS_BASE_POR_CEM_PORCENTO / 2;
+            for (int i = inicio; i < fim; i++) {
+                long preco = precos[i];
+                long pb = pontosBase == null ? pontosBaseUnico : pontosBase[i];
+                if (pb < 0 || pb > Centavos.PONTOS_BASE_POR_CEM_PORCENTO || preco < 0 || preco > MAXIMO_CENTAVOS) {
+                    invalidos[i >>> 6] |= 1L << i;
+                    resultado[i] = preco;
+                } else {
+                    // Mesmo arredondamento de Centavos.aplicarDesconto; o limite do preço garante que não estoura
+                    resultado[i] = preco - (preco * pb + metade) / Centavos.PONTOS_BASE_POR_CEM_PORCENTO;
+                }
+            }
+        }
     }
 }
@@ -1,12 +1,18 @@
 package Model.Bo;
 
 import DAO.DAOConta;
+import DAO.DAOContaCache;
 import DAO.InterfaceDAO;
 import Model.Conta;
 import Enum.EnumUpdate;
 
 public class ModelBoProcessConta {
 
+    private static final int CACHE_MAX_CONTAS = 10000;
+    private static final long CACHE_TTL_MILLIS = 60000;
+
+    private static final DAOContaCache DAO_CONTA = new DAOContaCache(new DAOConta(), CACHE_MAX_CONTAS, CACHE_TTL_MILLIS);
+
     private InterfaceDAO daoConta;
 
     ModelBoProcessConta(InterfaceDAO daoConta) {
@@ -14,15 +20,22 @@ public class ModelBoProcessConta {
     }
 
     public static boolean update (Conta conta, EnumUpdate metodo) {
-        DAOConta daoConta = new DAOConta();
         switch (metodo) {
             case METHOD_UPDATE:
-                return daoConta.update(conta);
+                return DAO_CONTA.update(conta);
             case METHOD_DROP:
-                return daoConta.updateWithDrop(conta);
+                return DAO_CONTA.updateWithDrop(conta);
             default:
                 return false;
         }
     }
 
+    public static Conta get(Conta conta) {
+        return DAO_CONTA.get(conta);
+    }
+
+    public static DAOContaCache getDaoConta() {
+        return DAO_CONTA;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package Model.Bo;
+
+import Model.Comerciantes;
+import Model.ModelCarrinho;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Valor mínimo para frete grátis por comerciante, compilado num vetor indexado pelo id do comerciante
+public final class RegrasFreteGratis {
+
+    public static final String PROPRIEDADE_ARQUIVO = "frete.gratis.regras";
+    private static final String RECURSO_PADRAO = "/frete-gratis.csv";
+    private static final long SEM_REGRA = Long.MAX_VALUE;
+
+    private final long[] minimoCentavosPorComerciante;
+
+    private RegrasFreteGratis(long[] minimoCentavosPorComerciante) {
+        this.minimoCentavosPorComerciante = minimoCentavosPorComerciante;
+    }
+
+    // Usa o arquivo da propriedade frete.gratis.regras, se definida, ou as regras empacotadas com a aplicação
+    public static RegrasFreteGratis carregarPadrao() {
+        String arquivo = System.getProperty(PROPRIEDADE_ARQUIVO);
+        try {
+            if (arquivo != null) {
+                return carregar(Paths.get(arquivo));
+            }
+            try (InputStream in = RegrasFreteGratis.class.getResourceAsStream(RECURSO_PADRAO)) {
+                if (in == null) {
+                    throw new IllegalStateException("Regras de frete grátis não encontradas: " + RECURSO_PADRAO);
+                }
+                return carregar(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao carregar as regras de frete grátis", e);
+        }
+    }
+
+    public static RegrasFreteGratis carregar(Path arquivo) throws IOException {
+        try (Reader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            return carregar(reader);
+        }
+    }
+
+    // Formato: nomeDoComerciante;valorMinimo por linha, com ponto ou vírgula como separador decimal e # para
+    // comentários. O nome vai até o ';' e pode ter espaços
+    public static RegrasFreteGratis carregar(Reader reader) throws IOException {
+        Map<String, Long> regras = new LinkedHashMap<>();
+        BufferedReader linhas = new BufferedReader(reader);
+
+        String linha;
+        int numero = 0;
+        while ((linha = linhas.readLine()) != null) {
+            numero++;
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+
+            String[] campos = linha.split(";");
+            String comerciante = campos.length == 2 ? campos[0].trim() : "";
+            if (comerciante.isEmpty()) {
+                throw new IllegalArgumentException("Linha " + numero + " inválida nas regras de frete grátis: " + linha);
+            }
+
+            String valor = campos[1].trim();
+            long centavos;
+            try {
+                centavos = new BigDecimal(valor.replace(',', '.')).movePointRight(2).longValueExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new IllegalArgumentException("Valor mínimo inválido na linha " + numero + ": " + linha, e);
+            }
+            if (centavos < 0) {
+                throw new IllegalArgumentException("Valor mínimo inválido na linha " + numero + ": " + linha);
+            }
+            if (regras.put(comerciante, centavos) != null) {
+                throw new IllegalArgumentException("Comerciante repetido na linha " + numero + ": " + comerciante);
+            }
+        }
+
+        // Só registra os comerciantes depois de validar o arquivo inteiro, para um arquivo inválido não deixar ids
+        long[] minimos = new long[0];
+        for (Map.Entry<String, Long> regra : regras.entrySet()) {
+            int id = Comerciantes.registrar(regra.getKey());
+            if (id >= minimos.length) {
+                int tamanhoAnterior = minimos.length;
+                minimos = Arrays.copyOf(minimos, id + 1);
+                Arrays.fill(minimos, tamanhoAnterior, minimos.length, SEM_REGRA);
+            }
+            minimos[id] = regra.getValue();
+        }
+        return new RegrasFreteGratis(minimos);
+    }
+
+    public boolean isElegivel(ModelCarrinho carrinho) {
+        return isElegivel(carrinho.getIdComerciante(), carrinho.getValorTotalCentavos());
+    }
+
+    public boolean isElegivel(int idComerciante, long valorTotalCentavos) {
+        long[] minimos = minimoCentavosPorComerciante;
+        return idComerciante >= 0 && idComerciante < minimos.length && valorTotalCentavos >= minimos[idComerciante];
+    }
+
+    // Bit i ligado quando o carrinho i tem frete grátis
+    public BitSet avaliar(List<ModelCarrinho> carrinhos) {
+        BitSet elegiveis = new BitSet(carrinhos.size());
+        for (int i = 0; i < carrinhos.size(); i++) {
+            if (isElegivel(carrinhos.get(i))) {
+                elegiveis.set(i);
+            }
+        }
+        return elegiveis;
+    }
+
+    public int getQuantidadeRegras() {
+        int quantidade = 0;
+        for (long minimo : minimoCentavosPorComerciante) {
+            if (minimo != SEM_REGRA) {
+                quantidade++;
+            }
+        }
+        return quantidade;
+    }
+}
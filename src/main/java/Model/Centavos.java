@@ -0,0 +1,75 @@
+package Model;
+
+// Valores monetários em centavos (long), para somar e aplicar descontos sem erro de arredondamento do double
+public final class Centavos {
+
+    public static final long PONTOS_BASE_POR_CEM_PORCENTO = 10000;
+
+    // Abaixo disso a soma simples já é tão rápida quanto a com acumuladores paralelos
+    private static final int MINIMO_SOMA_EM_BLOCOS = 64;
+    // 2^22 valores menores que 2^40 somam menos que 2^62
+    private static final int TAMANHO_BLOCO = 1 << 22;
+    private static final long LIMITE_SEGURO = (1L << 40) - 1;
+    private static final double MAXIMO_REAIS = Long.MAX_VALUE / 100.0;
+
+    private Centavos() {
+    }
+
+    // Valores com até duas casas decimais convertem sem perda; mais casas são arredondadas
+    public static long deReais(double reais) {
+        if (Double.isNaN(reais) || Math.abs(reais) >= MAXIMO_REAIS) {
+            throw new IllegalArgumentException("Valor monetário inválido: " + reais);
+        }
+        return Math.round(reais * 100);
+    }
+
+    public static double paraReais(long centavos) {
+        return centavos / 100.0;
+    }
+
+    // Desconto em pontos-base (1 = 0,01%), arredondado para o centavo mais próximo
+    public static long aplicarDesconto(long centavos, long pontosBase) {
+        long desconto = Math.multiplyExact(centavos, pontosBase);
+        desconto = (desconto + (desconto < 0 ? -PONTOS_BASE_POR_CEM_PORCENTO / 2 : PONTOS_BASE_POR_CEM_PORCENTO / 2))
+                / PONTOS_BASE_POR_CEM_PORCENTO;
+        return centavos - desconto;
+    }
+
+    // Lança ArithmeticException se a soma estourar o long
+    public static long somar(long[] valores) {
+        if (valores.length < MINIMO_SOMA_EM_BLOCOS) {
+            long total = 0;
+            for (long valor : valores) {
+                total = Math.addExact(total, valor);
+            }
+            return total;
+        }
+        return somarEmBlocos(valores);
+    }
+
+    // Em cada bloco a soma e o OR dos valores são laços simples, sem desvios, que o JIT vetoriza. Se nenhum valor
+    // do bloco passa de 2^40 centavos (e nenhum é negativo), a soma do bloco não tem como estourar; senão o bloco
+    // é refeito com Math.addExact.
+    private static long somarEmBlocos(long[] valores) {
+        long total = 0;
+        for (int inicio = 0; inicio < valores.length; inicio += TAMANHO_BLOCO) {
+            int fim = Math.min(valores.length, inicio + TAMANHO_BLOCO);
+
+            long soma = 0;
+            long bits = 0;
+            for (int i = inicio; i < fim; i++) {
+                soma += valores[i];
+                bits |= valores[i];
+            }
+
+            if ((bits & ~LIMITE_SEGURO) != 0) {
+                soma = 0;
+                for (int i = inicio; i < fim; i++) {
+                    soma = Math.addExact(soma, valores[i]);
+                }
+            }
+            total = Math.addExact(total, soma);
+        }
+        return total;
+    }
+}
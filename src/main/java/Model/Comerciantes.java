@@ -0,0 +1,37 @@
+package Model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Registro de comerciantes: cada nome com regra configurada recebe um id inteiro fixo, para indexar as regras em vetores.
+// Só quem carrega configuração registra nomes; os demais só consultam, para que nomes vindos de carrinhos não se acumulem
+public final class Comerciantes {
+
+    public static final int SEM_COMERCIANTE = -1;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger PROXIMO_ID = new AtomicInteger();
+
+    private Comerciantes() {
+    }
+
+    // Id do comerciante, ou SEM_COMERCIANTE se ele nunca foi registrado
+    public static int id(String nomeComerciante) {
+        if (nomeComerciante == null) {
+            return SEM_COMERCIANTE;
+        }
+        return IDS.getOrDefault(nomeComerciante, SEM_COMERCIANTE);
+    }
+
+    public static int registrar(String nomeComerciante) {
+        if (nomeComerciante == null) {
+            throw new IllegalArgumentException("Nome do comerciante não pode ser nulo");
+        }
+        return IDS.computeIfAbsent(nomeComerciante, nome -> PROXIMO_ID.getAndIncrement());
+    }
+
+    public static int getQuantidade() {
+        return PROXIMO_ID.get();
+    }
+}
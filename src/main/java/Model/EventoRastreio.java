@@ -0,0 +1,4 @@
+package Model;
+
+public record EventoRastreio(String data, String local, String status) {
+}
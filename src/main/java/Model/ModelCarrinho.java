@@ -2,7 +2,8 @@ package Model;
 
 public class ModelCarrinho {
     private String nomeComerciante;
-    private double valorTotal;
+    private int idComerciante = Comerciantes.SEM_COMERCIANTE;
+    private long valorTotalCentavos;
 
     public String getNomeComerciante() {
         return this.nomeComerciante;
@@ -10,14 +11,31 @@ public class ModelCarrinho {
 
     public void setNomeComerciante(String nomeComerciante) {
         this.nomeComerciante = nomeComerciante;
+        this.idComerciante = Comerciantes.id(nomeComerciante);
+    }
+
+    // O id é guardado depois da primeira consulta; comerciantes registrados depois do set ainda são encontrados
+    public int getIdComerciante() {
+        if (this.idComerciante == Comerciantes.SEM_COMERCIANTE && this.nomeComerciante != null) {
+            this.idComerciante = Comerciantes.id(this.nomeComerciante);
+        }
+        return this.idComerciante;
     }
 
     public double getValorTotal() {
-        return this.valorTotal;
+        return Centavos.paraReais(this.valorTotalCentavos);
     }
 
     public void setValorTotal(double valorTotal) {
-        this.valorTotal = valorTotal;
+        this.valorTotalCentavos = Centavos.deReais(valorTotal);
+    }
+
+    public long getValorTotalCentavos() {
+        return this.valorTotalCentavos;
+    }
+
+    public void setValorTotalCentavos(long valorTotalCentavos) {
+        this.valorTotalCentavos = valorTotalCentavos;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,326 @@
+package Model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Carrinho com itens de vários comerciantes em vetores primitivos. Cada item é identificado pelo handle devolvido em
+// adicionarItem; os totais por comerciante e o geral são ajustados a cada alteração, sem somar o carrinho de novo.
+public class ModelCarrinhoMultiplo {
+
+    private static final byte VERSAO_FORMATO = 1;
+    private static final int LIVRE = -1;
+
+    // Handle = geração da posição << BITS_POSICAO | posição. A posição de um item removido é reaproveitada com a geração
+    // seguinte, então um handle antigo é recusado em vez de alterar outro item
+    private static final int BITS_POSICAO = 16;
+    private static final int MASCARA_POSICAO = (1 << BITS_POSICAO) - 1;
+    private static final int MASCARA_GERACAO = (1 << (31 - BITS_POSICAO)) - 1;
+    private static final int TAMANHO_MINIMO_COMERCIANTE = 4;
+    private static final int TAMANHO_MINIMO_ITEM = 4 + 4 + 8 + 4;
+
+    // Comerciantes, na ordem em que apareceram no carrinho
+    private String[] nomesComerciante = new String[4];
+    private int[] idsComerciante = new int[4];
+    private long[] totaisComerciante = new long[4];
+    private int[] primeiroItem = new int[4];
+    private int[] ultimoItem = new int[4];
+    private int quantidadeComerciantes;
+
+    // Itens; cada comerciante tem sua lista duplamente encadeada, e os índices removidos são reaproveitados
+    private int[] comercianteItem = new int[8];
+    private String[] produtos = new String[8];
+    private long[] precos = new long[8];
+    private int[] quantidades = new int[8];
+    private int[] proximo = new int[8];
+    private int[] anterior = new int[8];
+    private int[] geracoes = new int[8];
+    private int usados;
+    private int primeiroLivre = LIVRE;
+    private int quantidadeItens;
+
+    private long totalCentavos;
+
+    public int adicionarItem(String nomeComerciante, String produto, long precoUnitarioCentavos, int quantidade) {
+        if (nomeComerciante == null || precoUnitarioCentavos < 0 || quantidade <= 0) {
+            throw new IllegalArgumentException("Item de carrinho inválido");
+        }
+
+        int comerciante = indiceComerciante(nomeComerciante);
+        long valor = Math.multiplyExact(precoUnitarioCentavos, quantidade);
+        long novoTotalComerciante = Math.addExact(totaisComerciante[comerciante], valor);
+        long novoTotal = Math.addExact(totalCentavos, valor);
+
+        int item = novoItem();
+        comercianteItem[item] = comerciante;
+        produtos[item] = produto;
+        precos[item] = precoUnitarioCentavos;
+        quantidades[item] = quantidade;
+
+        proximo[item] = LIVRE;
+        anterior[item] = ultimoItem[comerciante];
+        if (ultimoItem[comerciante] != LIVRE) {
+            proximo[ultimoItem[comerciante]] = item;
+        } else {
+            primeiroItem[comerciante] = item;
+        }
+        ultimoItem[comerciante] = item;
+
+        totaisComerciante[comerciante] = novoTotalComerciante;
+        totalCentavos = novoTotal;
+        quantidadeItens++;
+        return geracoes[item] << BITS_POSICAO | item;
+    }
+
+    // Quantidade zero remove o item
+    public void alterarQuantidade(int handle, int quantidade) {
+        int item = posicao(handle);
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade inválida");
+        }
+        if (quantidade == 0) {
+            removerItem(handle);
+            return;
+        }
+
+        long diferenca = Math.multiplyExact(precos[item], (long) quantidade - quantidades[item]);
+        int comerciante = comercianteItem[item];
+        long novoTotalComerciante = Math.addExact(totaisComerciante[comerciante], diferenca);
+        totalCentavos = Math.addExact(totalCentavos, diferenca);
+        totaisComerciante[comerciante] = novoTotalComerciante;
+        quantidades[item] = quantidade;
+    }
+
+    public void removerItem(int handle) {
+        int item = posicao(handle);
+        int comerciante = comercianteItem[item];
+        long valor = precos[item] * quantidades[item];
+        totaisComerciante[comerciante] -= valor;
+        totalCentavos -= valor;
+
+        if (anterior[item] != LIVRE) {
+            proximo[anterior[item]] = proximo[item];
+        } else {
+            primeiroItem[comerciante] = proximo[item];
+        }
+        if (proximo[item] != LIVRE) {
+            anterior[proximo[item]] = anterior[item];
+        } else {
+            ultimoItem[comerciante] = anterior[item];
+        }
+
+        comercianteItem[item] = LIVRE;
+        produtos[item] = null;
+        geracoes[item] = (geracoes[item] + 1) & MASCARA_GERACAO;
+        proximo[item] = primeiroLivre;
+        primeiroLivre = item;
+        quantidadeItens--;
+    }
+
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+    public double getValorTotal() {
+        return Centavos.paraReais(totalCentavos);
+    }
+
+    public int getQuantidadeItens() {
+        return quantidadeItens;
+    }
+
+    public int getQuantidadeComerciantes() {
+        return quantidadeComerciantes;
+    }
+
+    public String getNomeComerciante(int comerciante) {
+        return nomesComerciante[comerciante];
+    }
+
+    public int getIdComerciante(int comerciante) {
+        if (idsComerciante[comerciante] == Comerciantes.SEM_COMERCIANTE) {
+            idsComerciante[comerciante] = Comerciantes.id(nomesComerciante[comerciante]);
+        }
+        return idsComerciante[comerciante];
+    }
+
+    public long getTotalComercianteCentavos(int comerciante) {
+        return totaisComerciante[comerciante];
+    }
+
+    public long getTotalComercianteCentavos(String nomeComerciante) {
+        for (int i = 0; i < quantidadeComerciantes; i++) {
+            if (nomesComerciante[i].equals(nomeComerciante)) {
+                return totaisComerciante[i];
+            }
+        }
+        return 0;
+    }
+
+    public int[] getItensComerciante(int comerciante) {
+        int[] itens = new int[quantidadeItens];
+        int n = 0;
+        for (int item = primeiroItem[comerciante]; item != LIVRE; item = proximo[item]) {
+            itens[n++] = geracoes[item] << BITS_POSICAO | item;
+        }
+        return Arrays.copyOf(itens, n);
+    }
+
+    public int getComercianteItem(int handle) {
+        return comercianteItem[posicao(handle)];
+    }
+
+    public String getProduto(int handle) {
+        return produtos[posicao(handle)];
+    }
+
+    public long getPrecoUnitarioCentavos(int handle) {
+        return precos[posicao(handle)];
+    }
+
+    public int getQuantidade(int handle) {
+        return quantidades[posicao(handle)];
+    }
+
+    // Formato compacto para guardar na sessão. Os handles dos itens mudam depois de desserializar
+    public byte[] serializar() {
+        byte[][] nomes = new byte[quantidadeComerciantes][];
+        byte[][] nomesProduto = new byte[usados][];
+        int tamanho = 1 + 4 + 4;
+        for (int i = 0; i < quantidadeComerciantes; i++) {
+            nomes[i] = nomesComerciante[i].getBytes(StandardCharsets.UTF_8);
+            tamanho += 4 + nomes[i].length;
+        }
+        for (int item = 0; item < usados; item++) {
+            if (comercianteItem[item] != LIVRE) {
+                nomesProduto[item] = produtos[item] == null ? null : produtos[item].getBytes(StandardCharsets.UTF_8);
+                tamanho += 4 + 4 + (nomesProduto[item] == null ? 0 : nomesProduto[item].length) + 8 + 4;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        buffer.put(VERSAO_FORMATO);
+        buffer.putInt(quantidadeComerciantes);
+        for (byte[] nome : nomes) {
+            buffer.putInt(nome.length).put(nome);
+        }
+        buffer.putInt(quantidadeItens);
+        for (int item = 0; item < usados; item++) {
+            if (comercianteItem[item] != LIVRE) {
+                buffer.putInt(comercianteItem[item]);
+                byte[] produto = nomesProduto[item];
+                buffer.putInt(produto == null ? -1 : produto.length);
+                if (produto != null) {
+                    buffer.put(produto);
+                }
+                buffer.putLong(precos[item]).putInt(quantidades[item]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static ModelCarrinhoMultiplo desserializar(byte[] dados) {
+        ByteBuffer buffer = ByteBuffer.wrap(dados);
+        try {
+            if (buffer.get() != VERSAO_FORMATO) {
+                throw new IllegalArgumentException("Versão de carrinho não suportada");
+            }
+
+            String[] nomes = new String[quantidade(buffer, TAMANHO_MINIMO_COMERCIANTE)];
+            for (int i = 0; i < nomes.length; i++) {
+                nomes[i] = texto(buffer);
+            }
+
+            ModelCarrinhoMultiplo carrinho = new ModelCarrinhoMultiplo();
+            for (String nome : nomes) {
+                carrinho.indiceComerciante(nome);
+            }
+            int itens = quantidade(buffer, TAMANHO_MINIMO_ITEM);
+            for (int i = 0; i < itens; i++) {
+                int comerciante = buffer.getInt();
+                String produto = texto(buffer);
+                carrinho.adicionarItem(nomes[comerciante], produto, buffer.getLong(), buffer.getInt());
+            }
+            return carrinho;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ArithmeticException e) {
+            throw new IllegalArgumentException("Carrinho serializado inválido", e);
+        }
+    }
+
+    // Lê uma quantidade e confere se os bytes restantes comportam esse número de registros antes de alocar qualquer coisa
+    private static int quantidade(ByteBuffer buffer, int tamanhoMinimoRegistro) {
+        int quantidade = buffer.getInt();
+        if (quantidade < 0 || quantidade > buffer.remaining() / tamanhoMinimoRegistro) {
+            throw new IllegalArgumentException("Carrinho serializado inválido: quantidade " + quantidade);
+        }
+        return quantidade;
+    }
+
+    private static String texto(ByteBuffer buffer) {
+        int tamanho = buffer.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (tamanho > buffer.remaining()) {
+            throw new IllegalArgumentException("Carrinho serializado inválido: texto de " + tamanho + " bytes");
+        }
+        String valor = new String(buffer.array(), buffer.position(), tamanho, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + tamanho);
+        return valor;
+    }
+
+    // Carrinhos têm poucos comerciantes, então a busca linear pelo nome é mais barata que um mapa
+    private int indiceComerciante(String nomeComerciante) {
+        for (int i = 0; i < quantidadeComerciantes; i++) {
+            if (nomesComerciante[i].equals(nomeComerciante)) {
+                return i;
+            }
+        }
+
+        if (quantidadeComerciantes == idsComerciante.length) {
+            int capacidade = quantidadeComerciantes * 2;
+            nomesComerciante = Arrays.copyOf(nomesComerciante, capacidade);
+            idsComerciante = Arrays.copyOf(idsComerciante, capacidade);
+            totaisComerciante = Arrays.copyOf(totaisComerciante, capacidade);
+            primeiroItem = Arrays.copyOf(primeiroItem, capacidade);
+            ultimoItem = Arrays.copyOf(ultimoItem, capacidade);
+        }
+        nomesComerciante[quantidadeComerciantes] = nomeComerciante;
+        idsComerciante[quantidadeComerciantes] = Comerciantes.id(nomeComerciante);
+        primeiroItem[quantidadeComerciantes] = LIVRE;
+        ultimoItem[quantidadeComerciantes] = LIVRE;
+        return quantidadeComerciantes++;
+    }
+
+    private int novoItem() {
+        if (primeiroLivre != LIVRE) {
+            int item = primeiroLivre;
+            primeiroLivre = proximo[item];
+            return item;
+        }
+
+        if (usados > MASCARA_POSICAO) {
+            throw new IllegalStateException("Carrinho cheio");
+        }
+        if (usados == comercianteItem.length) {
+            int capacidade = usados * 2;
+            comercianteItem = Arrays.copyOf(comercianteItem, capacidade);
+            produtos = Arrays.copyOf(produtos, capacidade);
+            precos = Arrays.copyOf(precos, capacidade);
+            quantidades = Arrays.copyOf(quantidades, capacidade);
+            proximo = Arrays.copyOf(proximo, capacidade);
+            anterior = Arrays.copyOf(anterior, capacidade);
+            geracoes = Arrays.copyOf(geracoes, capacidade);
+        }
+        return usados++;
+    }
+
+    private int posicao(int handle) {
+        int item = handle & MASCARA_POSICAO;
+        if (handle < 0 || item >= usados || comercianteItem[item] == LIVRE || geracoes[item] != handle >>> BITS_POSICAO) {
+            throw new IllegalArgumentException("Item inexistente no carrinho: " + handle);
+        }
+        return item;
+    }
+}
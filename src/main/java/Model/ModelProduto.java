@@ -1,14 +1,22 @@
 package Model;
 
 public class ModelProduto {
-    private double valor;
+    private long valorCentavos;
 
     public double getValor() {
-        return this.valor;
+        return Centavos.paraReais(this.valorCentavos);
     }
 
     public void setValor(double valor) {
-        this.valor = valor;
+        this.valorCentavos = Centavos.deReais(valor);
+    }
+
+    public long getValorCentavos() {
+        return this.valorCentavos;
+    }
+
+    public void setValorCentavos(long valorCentavos) {
+        this.valorCentavos = valorCentavos;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package Model;
+
+import java.util.List;
+
+public record Rastreio(long codigo, String status, String transportadora, String dataPostagem,
+                       String previsaoEntrega, List<EventoRastreio> cronologia) {
+
+    public Rastreio {
+        cronologia = cronologia == null ? List.of() : List.copyOf(cronologia);
+    }
+
+    public boolean isEntregue() {
+        return "Entregue".equals(status);
+    }
+}
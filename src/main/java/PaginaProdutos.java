@@ -0,0 +1,28 @@
+import java.util.List;
+
+// Uma página do filtro paginado; o último nome e id formam a chave para pedir a página seguinte
+public final class PaginaProdutos {
+
+    private final List<String> nomes;
+    private final String ultimoNome;
+    private final int ultimoId;
+
+    public PaginaProdutos(List<String> nomes, String ultimoNome, int ultimoId) {
+        this.nomes = nomes;
+        this.ultimoNome = ultimoNome;
+        this.ultimoId = ultimoId;
+    }
+
+    public List<String> getNomes() {
+        return nomes;
+    }
+
+    // null quando a página veio vazia
+    public String getUltimoNome() {
+        return ultimoNome;
+    }
+
+    public int getUltimoId() {
+        return ultimoId;
+    }
+}
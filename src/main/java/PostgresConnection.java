@@ -1,5 +1,6 @@
+import DAO.ConnectionPool;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class PostgresConnection {
@@ -8,13 +9,26 @@ public class PostgresConnection {
     private static final String USUARIO = "postgres";
     private static final String SENHA = "ratzmann";
 
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 5000;
+    private static final long POOL_LEAK_THRESHOLD_MILLIS = 30000;
+    private static final int POOL_STATEMENT_CACHE_SIZE = 64;
+
+    private static final ConnectionPool POOL = ConnectionPool.create("postgres", URL, USUARIO, SENHA,
+            POOL_MIN_IDLE, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MILLIS, POOL_LEAK_THRESHOLD_MILLIS, POOL_STATEMENT_CACHE_SIZE);
+
 
     public static Connection conectar() {
         try {
-            return DriverManager.getConnection(URL, USUARIO, SENHA);
+            return POOL.getConnection();
         } catch (SQLException e) {
             System.out.println("Erro ao conectar ao banco: " + e.getMessage());
             return null;
         }
     }
+
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
 }
@@ -1,36 +1,152 @@
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ProdutoDAO {
 
+    public static final int TAMANHO_FETCH = 500;
+
+    private final CatalogoProdutos catalogo;
+    private volatile boolean usarSql;
+
+    public ProdutoDAO() {
+        this(null);
+    }
+
+    public ProdutoDAO(CatalogoProdutos catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    // Chave para voltar a consultar o banco mesmo com o catálogo em memória carregado
+    public void setUsarSql(boolean usarSql) {
+        this.usarSql = usarSql;
+    }
+
+    public boolean isUsarSql() {
+        return usarSql;
+    }
+
     public List<String> aplicarFiltro(String categoria, double precoMin, double precoMax, Integer notaMin) {
+        if (!usarSql && catalogo != null && catalogo.isCarregado()) {
+            return catalogo.filtrar(categoria, precoMin, precoMax, notaMin);
+        }
+
         List<String> resultados = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT nome FROM produtos WHERE categoria = ? AND preco BETWEEN ? AND ?");
-        if (notaMin != null) {
-            sql.append(" AND nota >= ?");
+
+        try (Connection conn = PostgresConnection.conectar();
+             PreparedStatement stmt = conn.prepareStatement(montarFiltro(notaMin).toString())) {
+
+            preencherFiltro(stmt, categoria, precoMin, precoMax, notaMin);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    resultados.add(rs.getString("nome"));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
 
+        return resultados;
+    }
+
+    // Entrega os nomes um a um, lidos do servidor em blocos de TAMANHO_FETCH, sem montar a lista em memória
+    public int aplicarFiltro(String categoria, double precoMin, double precoMax, Integer notaMin, Consumer<String> consumidor) {
+        int entregues = 0;
+
+        try (Connection conn = PostgresConnection.conectar();
+             PreparedStatement stmt = conn.prepareStatement(montarFiltro(notaMin).toString())) {
+
+            conn.setAutoCommit(false); // o driver do PostgreSQL só usa cursor fora do auto-commit
+            stmt.setFetchSize(TAMANHO_FETCH);
+            preencherFiltro(stmt, categoria, precoMin, precoMax, notaMin);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(rs.getString("nome"));
+                    entregues++;
+                }
+            }
+            conn.commit();
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return entregues;
+    }
+
+    // Paginação por chave (nome, id): a próxima página começa depois do último nome e id recebidos (afterNome null na
+    // primeira página). O id desempata produtos de mesmo nome, que com nome > ? sozinho sumiriam entre duas páginas
+    public PaginaProdutos aplicarFiltroPaginado(String categoria, double precoMin, double precoMax, Integer notaMin,
+                                                String afterNome, int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limite da página não pode ser negativo");
+        }
+        if (limit == 0) {
+            return new PaginaProdutos(new ArrayList<>(), null, 0);
+        }
+
+        // O limite vem do chamador; a lista cresce se a página realmente vier cheia
+        List<String> resultados = new ArrayList<>(Math.min(limit, 256));
+        String ultimoNome = null;
+        int ultimoId = 0;
+        StringBuilder sql = montarFiltro("nome, id", notaMin);
+        if (afterNome != null) {
+            sql.append(" AND (nome, id) > (?, ?)");
+        }
+        sql.append(" ORDER BY nome, id LIMIT ?");
+
         try (Connection conn = PostgresConnection.conectar();
              PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
-            stmt.setString(1, categoria);
-            stmt.setDouble(2, precoMin);
-            stmt.setDouble(3, precoMax);
-            if (notaMin != null) {
-                stmt.setInt(4, notaMin);
+            int indice = preencherFiltro(stmt, categoria, precoMin, precoMax, notaMin);
+            if (afterNome != null) {
+                stmt.setString(indice++, afterNome);
+                stmt.setInt(indice++, afterId);
             }
+            stmt.setInt(indice, limit);
 
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                resultados.add(rs.getString("nome"));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ultimoNome = rs.getString("nome");
+                    ultimoId = rs.getInt("id");
+                    resultados.add(ultimoNome);
+                }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        return resultados;
+        return new PaginaProdutos(resultados, ultimoNome, ultimoId);
+    }
+
+    private StringBuilder montarFiltro(Integer notaMin) {
+        return montarFiltro("nome", notaMin);
     }
-}
 
+    private StringBuilder montarFiltro(String colunas, Integer notaMin) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(colunas)
+                .append(" FROM produtos WHERE categoria = ? AND preco BETWEEN ? AND ?");
+        if (notaMin != null) {
+            sql.append(" AND nota >= ?");
+        }
+        return sql;
+    }
+
+    // Retorna o índice do próximo parâmetro livre
+    private int preencherFiltro(PreparedStatement stmt, String categoria, double precoMin, double precoMax,
+                                Integer notaMin) throws SQLException {
+        stmt.setString(1, categoria);
+        stmt.setDouble(2, precoMin);
+        stmt.setDouble(3, precoMax);
+        if (notaMin != null) {
+            stmt.setInt(4, notaMin);
+            return 5;
+        }
+        return 4;
+    }
+}
@@ -1,14 +1,28 @@
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ProdutoService {
 
-    private List<String> produtos = Arrays.asList("alexa", "notebook", "fone bluetooth");
+    private final IndiceTrigramas produtos = new IndiceTrigramas();
+
+    public ProdutoService() {
+        this(Arrays.asList("alexa", "notebook", "fone bluetooth"));
+    }
+
+    public ProdutoService(Collection<String> produtos) {
+        this.produtos.adicionarTodos(produtos);
+    }
 
     public List<String> buscarProduto(String termo) {
-        return produtos.stream()
-                .filter(p -> p.contains(termo.toLowerCase()))
-                .collect(Collectors.toList());
+        return produtos.buscar(termo.toLowerCase());
+    }
+
+    public void adicionarProduto(String nome) {
+        produtos.adicionar(nome);
+    }
+
+    public boolean removerProduto(String nome) {
+        return produtos.remover(nome);
     }
 }
@@ -1,10 +1,85 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class RastreioService {
+
+    private static final String CODIGO_INVALIDO = "Código de rastreio inválido";
+
+    // Pesos do dígito verificador (módulo 11) sobre os 6 primeiros dígitos do bloco numérico
+    private static final int[] PESOS = {7, 6, 5, 4, 3, 2};
+
     public String rastrearEncomenda(String codigo) {
-        if (codigo == null || !codigo.matches("[A-Z]{2}\\d{7}[A-Z]{2}")) { //Valida se o formato do código é correto
-            return "Código de rastreio inválido";
+        if (!isCodigoValido(codigo)) { //Valida se o formato do código é correto
+            return CODIGO_INVALIDO;
         }
         else{
-            return "Encomenda em trânsito - São Paulo/SP";
+            return consultar(codigo);
         }
     }
-}
\ No newline at end of file
+
+    // Valida todos os códigos numa só passada e consulta cada código válido uma única vez, mantendo a ordem de entrada
+    public Map<String, String> rastrearEncomendas(List<String> codigos) {
+        Map<String, String> resultados = new LinkedHashMap<>(codigos.size() * 2);
+        List<String> validos = new ArrayList<>(codigos.size());
+
+        for (String codigo : codigos) {
+            if (resultados.containsKey(codigo)) {
+                continue; // código repetido
+            }
+            if (isCodigoValido(codigo)) {
+                resultados.put(codigo, null);
+                validos.add(codigo);
+            } else {
+                resultados.put(codigo, CODIGO_INVALIDO);
+            }
+        }
+
+        for (String codigo : validos) {
+            resultados.put(codigo, consultar(codigo));
+        }
+        return resultados;
+    }
+
+    // Formato AA9999999AA, sem regex nem alocação, com o último dígito como verificador dos 6 anteriores
+    public static boolean isCodigoValido(CharSequence codigo) {
+        if (codigo == null || codigo.length() != 11) {
+            return false;
+        }
+        if (!isLetra(codigo.charAt(0)) || !isLetra(codigo.charAt(1))
+                || !isLetra(codigo.charAt(9)) || !isLetra(codigo.charAt(10))) {
+            return false;
+        }
+
+        int soma = 0;
+        for (int i = 0; i < 6; i++) {
+            int digito = codigo.charAt(2 + i) - '0';
+            if (digito < 0 || digito > 9) {
+                return false;
+            }
+            soma += digito * PESOS[i];
+        }
+
+        int verificador = codigo.charAt(8) - '0';
+        if (verificador < 0 || verificador > 9) {
+            return false;
+        }
+
+        int esperado = 11 - (soma % 11);
+        if (esperado == 10) {
+            esperado = 0;
+        } else if (esperado == 11) {
+            esperado = 5;
+        }
+        return verificador == esperado;
+    }
+
+    private static boolean isLetra(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private String consultar(String codigo) {
+        return "Encomenda em trânsito - São Paulo/SP";
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Estoque em memória com reservas temporárias. A retirada é feita com compare-and-set, sem locks, e produtos muito
+// disputados podem ter o saldo dividido em faixas, para que threads diferentes não disputem o mesmo contador.
+public class ReservaEstoque {
+
+    private static final int ATIVA = 0;
+    private static final int CONFIRMADA = 1;
+    private static final int LIBERADA = 2;
+    private static final int EXPIRADA = 3;
+
+    // Cada faixa ocupa uma linha de cache inteira (8 longs), para evitar falso compartilhamento
+    private static final int ESPACAMENTO = 8;
+
+    // Reservas agrupadas pelo vencimento em janelas de 2^27 ns (~134 ms); uma reserva pode ser liberada até uma
+    // janela depois de vencer, em troca de nenhuma fila única disputada a cada reserva
+    private static final int BITS_JANELA = 27;
+
+    private final Map<String, Produto> produtos = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<Reserva>> expiracoes = new ConcurrentHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final LongSupplier relogioNanos;
+    private ScheduledExecutorService agendador;
+
+    public ReservaEstoque() {
+        this(System::nanoTime);
+    }
+
+    // Relógio em nanossegundos com a semântica de System.nanoTime; os testes passam um relógio controlado
+    public ReservaEstoque(LongSupplier relogioNanos) {
+        this.relogioNanos = relogioNanos;
+    }
+
+    public void cadastrarProduto(String idProduto, long quantidade) {
+        cadastrarProduto(idProduto, quantidade, 1);
+    }
+
+    // Faixas deve ser potência de 2; use mais de uma só para produtos com muita disputa (ex.: ofertas relâmpago)
+    public void cadastrarProduto(String idProduto, long quantidade, int faixas) {
+        if (quantidade < 0 || faixas <= 0 || Integer.bitCount(faixas) != 1) {
+            throw new IllegalArgumentException("Quantidade ou número de faixas inválido");
+        }
+        produtos.put(idProduto, new Produto(idProduto, quantidade, faixas));
+    }
+
+    public boolean reabastecer(String idProduto, long quantidade) {
+        Produto produto = produtos.get(idProduto);
+        if (produto == null || quantidade <= 0) {
+            return false;
+        }
+        produto.devolver(quantidade);
+        return true;
+    }
+
+    public long getDisponivel(String idProduto) {
+        Produto produto = produtos.get(idProduto);
+        return produto == null ? 0 : produto.getDisponivel();
+    }
+
+    // Retorna null se o produto não existe ou não há saldo suficiente
+    public Reserva reservar(String idProduto, int quantidade, long validadeMillis) {
+        Produto produto = produtos.get(idProduto);
+        if (produto == null || quantidade <= 0 || !produto.retirar(quantidade)) {
+            return null;
+        }
+
+        long expiraEm = relogioNanos.getAsLong() + TimeUnit.MILLISECONDS.toNanos(validadeMillis);
+        Reserva reserva = new Reserva(sequencia.incrementAndGet(), produto, quantidade, expiraEm, relogioNanos);
+        long janela = expiraEm >> BITS_JANELA;
+        Queue<Reserva> fila = expiracoes.computeIfAbsent(janela, j -> new ConcurrentLinkedQueue<>());
+        fila.add(reserva);
+
+        // A janela pode ter sido liberada entre a busca e a inclusão (validade muito curta e thread pausada);
+        // nesse caso a reserva já venceu e é devolvida aqui mesmo
+        if (expiracoes.get(janela) != fila) {
+            expirar(reserva);
+        }
+        return reserva;
+    }
+
+    // Baixa definitiva; falha se a reserva já expirou ou foi liberada. Uma reserva vencida que a liberação periódica
+    // ainda não alcançou é expirada aqui mesmo
+    public boolean confirmar(Reserva reserva) {
+        if (reserva.isVencida()) {
+            expirar(reserva);
+            return false;
+        }
+        return reserva.estado.compareAndSet(ATIVA, CONFIRMADA);
+    }
+
+    // Volta uma reserva confirmada para ativa, quando a compra que a confirmou não pôde ser concluída
+    boolean desfazerConfirmacao(Reserva reserva) {
+        if (!reserva.estado.compareAndSet(CONFIRMADA, ATIVA)) {
+            return false;
+        }
+        // Se venceu enquanto estava confirmada, a liberação periódica já pode ter passado pela janela dela
+        if (reserva.isVencida()) {
+            expirar(reserva);
+        }
+        return true;
+    }
+
+    public boolean liberar(Reserva reserva) {
+        if (!reserva.estado.compareAndSet(ATIVA, LIBERADA)) {
+            return false;
+        }
+        reserva.produto.devolver(reserva.quantidade);
+        return true;
+    }
+
+    // Devolve ao estoque, de uma vez, tudo o que estava reservado e venceu; retorna quantas reservas expiraram
+    public int liberarExpiradas() {
+        long janelaAtual = relogioNanos.getAsLong() >> BITS_JANELA;
+        Map<Produto, long[]> devolucoes = new IdentityHashMap<>();
+        int expiradas = 0;
+
+        Iterator<Map.Entry<Long, Queue<Reserva>>> janelas = expiracoes.entrySet().iterator();
+        while (janelas.hasNext()) {
+            Map.Entry<Long, Queue<Reserva>> janela = janelas.next();
+            if (janela.getKey() - janelaAtual >= 0) {
+                continue;
+            }
+            janelas.remove();
+
+            // O CAS no estado garante que cada reserva volta ao estoque uma vez só
+            for (Reserva reserva : janela.getValue()) {
+                if (reserva.estado.compareAndSet(ATIVA, EXPIRADA)) {
+                    devolucoes.computeIfAbsent(reserva.produto, p -> new long[1])[0] += reserva.quantidade;
+                    expiradas++;
+                }
+            }
+        }
+        devolucoes.forEach((produto, quantidade) -> produto.devolver(quantidade[0]));
+        return expiradas;
+    }
+
+    private void expirar(Reserva reserva) {
+        if (reserva.estado.compareAndSet(ATIVA, EXPIRADA)) {
+            reserva.produto.devolver(reserva.quantidade);
+        }
+    }
+
+    public synchronized void iniciarLiberacaoPeriodica(long periodoMillis) {
+        if (agendador != null) {
+            return;
+        }
+
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reserva-estoque");
+            t.setDaemon(true);
+            return t;
+        });
+        agendador.scheduleWithFixedDelay(this::liberarExpiradas, periodoMillis, periodoMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void pararLiberacaoPeriodica() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    public static final class Reserva {
+        private final long id;
+        private final Produto produto;
+        private final int quantidade;
+        private final long expiraEm;
+        private final LongSupplier relogioNanos;
+        private final AtomicInteger estado = new AtomicInteger(ATIVA);
+
+        private Reserva(long id, Produto produto, int quantidade, long expiraEm, LongSupplier relogioNanos) {
+            this.id = id;
+            this.produto = produto;
+            this.quantidade = quantidade;
+            this.expiraEm = expiraEm;
+            this.relogioNanos = relogioNanos;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getIdProduto() {
+            return produto.id;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+
+        public boolean isAtiva() {
+            return estado.get() == ATIVA;
+        }
+
+        public boolean isConfirmada() {
+            return estado.get() == CONFIRMADA;
+        }
+
+        public boolean isVencida() {
+            return relogioNanos.getAsLong() - expiraEm >= 0;
+        }
+    }
+
+    private static final class Produto {
+        private final String id;
+        private final AtomicLongArray faixas;
+        private final int mascara;
+
+        private Produto(String id, long quantidade, int quantidadeFaixas) {
+            this.id = id;
+            this.faixas = new AtomicLongArray(quantidadeFaixas * ESPACAMENTO);
+            this.mascara = quantidadeFaixas - 1;
+
+            // Saldo inicial repartido entre as faixas
+            for (int f = 0; f < quantidadeFaixas; f++) {
+                faixas.set(f * ESPACAMENTO, quantidade / quantidadeFaixas + (f < quantidade % quantidadeFaixas ? 1 : 0));
+            }
+        }
+
+        private boolean retirar(long quantidade) {
+            int inicio = faixaDaThread();
+
+            // Primeiro tenta tirar tudo de uma faixa só, começando pela da thread
+            for (int i = 0; i <= mascara; i++) {
+                int indice = ((inicio + i) & mascara) * ESPACAMENTO;
+                long saldo = faixas.get(indice);
+                while (saldo >= quantidade) {
+                    if (faixas.compareAndSet(indice, saldo, saldo - quantidade)) {
+                        return true;
+                    }
+                    saldo = faixas.get(indice);
+                }
+            }
+            if (mascara == 0) {
+                return false;
+            }
+
+            // Saldo espalhado: junta o que der de cada faixa e devolve se não alcançar a quantidade
+            long faltando = quantidade;
+            for (int i = 0; i <= mascara && faltando > 0; i++) {
+                int indice = ((inicio + i) & mascara) * ESPACAMENTO;
+                long saldo = faixas.get(indice);
+                while (saldo > 0) {
+                    long parte = Math.min(saldo, faltando);
+                    if (faixas.compareAndSet(indice, saldo, saldo - parte)) {
+                        faltando -= parte;
+                        break;
+                    }
+                    saldo = faixas.get(indice);
+                }
+            }
+            if (faltando > 0) {
+                devolver(quantidade - faltando);
+                return false;
+            }
+            return true;
+        }
+
+        private void devolver(long quantidade) {
+            if (quantidade > 0) {
+                faixas.addAndGet((faixaDaThread() & mascara) * ESPACAMENTO, quantidade);
+            }
+        }
+
+        private long getDisponivel() {
+            long total = 0;
+            for (int f = 0; f <= mascara; f++) {
+                total += faixas.get(f * ESPACAMENTO);
+            }
+            return total;
+        }
+
+        private int faixaDaThread() {
+            int h = (int) Thread.currentThread().threadId() * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package Services;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Consultas de rastreio em threads virtuais, com limite de concorrência e prazo por consulta
+public final class ConsultaRastreioParalela {
+
+    public static final int CONCORRENCIA_PADRAO = 16;
+    public static final long TIMEOUT_PADRAO_MILLIS = 5000;
+
+    private static final ExecutorService THREADS_VIRTUAIS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ConsultaRastreioParalela() {
+    }
+
+    public static <T> CompletableFuture<T> consultarAsync(Function<String, T> consulta, String codigoRastreio) {
+        return CompletableFuture.supplyAsync(() -> consulta.apply(codigoRastreio), THREADS_VIRTUAIS);
+    }
+
+    // Resultado parcial: códigos que falharam ou não responderam dentro do prazo ficam fora do mapa. O prazo vale para
+    // cada consulta e só começa a contar quando ela consegue uma das vagas de concorrência, então lotes grandes não
+    // perdem o fim por causa da espera na fila
+    public static <T> Map<String, T> consultar(Function<String, T> consulta, Collection<String> codigosRastreio,
+                                               int concorrencia, long timeoutMillis) {
+        if (concorrencia <= 0) {
+            throw new IllegalArgumentException("Concorrência deve ser positiva");
+        }
+
+        Semaphore limite = new Semaphore(concorrencia);
+        Map<String, Future<T>> consultas = new LinkedHashMap<>();
+
+        for (String codigo : codigosRastreio) {
+            if (consultas.containsKey(codigo)) {
+                continue;
+            }
+            consultas.put(codigo, THREADS_VIRTUAIS.submit(() -> {
+                limite.acquire();
+                Future<T> resposta = THREADS_VIRTUAIS.submit(() -> consulta.apply(codigo));
+                try {
+                    return resposta.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | InterruptedException e) {
+                    resposta.cancel(true);
+                    throw e;
+                } finally {
+                    limite.release();
+                }
+            }));
+        }
+
+        Map<String, T> resultados = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<T>> pendente : consultas.entrySet()) {
+            try {
+                T resposta = pendente.getValue().get();
+                if (resposta != null) {
+                    resultados.put(pendente.getKey(), resposta);
+                }
+            } catch (ExecutionException | CancellationException e) {
+                // Falha ou prazo estourado de um código não derruba as demais consultas
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                consultas.values().forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        return resultados;
+    }
+}
@@ -0,0 +1,335 @@
+package Services;
+
+import Model.EventoRastreio;
+import Model.Rastreio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Log só de inclusão, mapeado em memória, com os eventos de rastreio de cada código encadeados do mais novo ao mais antigo
+public class LogRastreio implements Closeable {
+
+    private static final int MAGICO = 0x52535452; // "RSTR"
+    private static final int CABECALHO = 16;      // mágico (int) + fim do log (long), com folga
+    private static final int POSICAO_FIM = 4;
+    private static final byte TIPO_REMESSA = 1;
+    private static final byte TIPO_EVENTO = 2;
+    private static final long SEM_REGISTRO = -1;
+    private static final int TAMANHO_MINIMO_REGISTRO = 4 + 1 + 8 + 4 + 8;
+
+    private final FileChannel canal;
+    private final Map<String, Cabeca> cabecas = new ConcurrentHashMap<>();
+    private volatile MappedByteBuffer mapa;
+    private long fim;
+
+    private LogRastreio(FileChannel canal, MappedByteBuffer mapa) {
+        this.canal = canal;
+        this.mapa = mapa;
+    }
+
+    // Abre o arquivo existente, refazendo o índice por código, ou cria um novo com a capacidade inicial
+    public static LogRastreio abrir(Path arquivo, int capacidadeInicial) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean novo = canal.size() == 0;
+            long tamanho = Math.max(canal.size(), Math.max(capacidadeInicial, CABECALHO * 2));
+            LogRastreio log = new LogRastreio(canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho));
+
+            if (novo) {
+                log.mapa.putInt(0, MAGICO);
+                log.fim = CABECALHO;
+                log.mapa.putLong(POSICAO_FIM, log.fim);
+            } else {
+                if (log.mapa.getInt(0) != MAGICO) {
+                    throw new IOException("Arquivo não é um log de rastreio: " + arquivo);
+                }
+                log.fim = Math.min(log.mapa.getLong(POSICAO_FIM), log.mapa.capacity());
+                log.reconstruirIndice();
+            }
+            return log;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // Grava os dados da remessa e todos os eventos da cronologia, por exemplo ao importar do provedor
+    public synchronized void registrar(String codigoRastreio, Rastreio rastreio) {
+        registrarRemessa(codigoRastreio, rastreio);
+        for (EventoRastreio evento : rastreio.cronologia()) {
+            registrarEvento(codigoRastreio, evento);
+        }
+    }
+
+    // Dados gerais da remessa; a cronologia do record é ignorada
+    public synchronized void registrarRemessa(String codigoRastreio, Rastreio rastreio) {
+        Cabeca atual = cabecas.get(codigoRastreio);
+        long posicao = acrescentar(TIPO_REMESSA, SEM_REGISTRO, codigoRastreio, rastreio.codigo(),
+                rastreio.status(), rastreio.transportadora(), rastreio.dataPostagem(), rastreio.previsaoEntrega());
+        cabecas.put(codigoRastreio, atual == null
+                ? new Cabeca(posicao, SEM_REGISTRO, 0)
+                : new Cabeca(posicao, atual.ultimoEvento, atual.quantidadeEventos));
+    }
+
+    public synchronized void registrarEvento(String codigoRastreio, EventoRastreio evento) {
+        Cabeca atual = cabecas.get(codigoRastreio);
+        long anterior = atual == null ? SEM_REGISTRO : atual.ultimoEvento;
+        long posicao = acrescentar(TIPO_EVENTO, anterior, codigoRastreio, 0,
+                evento.data(), evento.local(), evento.status());
+        cabecas.put(codigoRastreio, atual == null
+                ? new Cabeca(SEM_REGISTRO, posicao, 1)
+                : new Cabeca(atual.remessa, posicao, atual.quantidadeEventos + 1));
+    }
+
+    // O(1): o índice aponta direto para o último evento gravado do código
+    public EventoRastreio getUltimoEvento(String codigoRastreio) {
+        Cabeca cabeca = cabecas.get(codigoRastreio);
+        if (cabeca == null || cabeca.ultimoEvento == SEM_REGISTRO) {
+            return null;
+        }
+        return new Leitura(mapa, cabeca.ultimoEvento).evento();
+    }
+
+    public String getStatusAtual(String codigoRastreio) {
+        EventoRastreio ultimo = getUltimoEvento(codigoRastreio);
+        return ultimo == null ? null : ultimo.status();
+    }
+
+    // Percorre a cadeia do código do fim para o início e devolve em ordem cronológica
+    public List<EventoRastreio> getCronologia(String codigoRastreio) {
+        return cronologia(cabecas.get(codigoRastreio));
+    }
+
+    private List<EventoRastreio> cronologia(Cabeca cabeca) {
+        if (cabeca == null || cabeca.ultimoEvento == SEM_REGISTRO) {
+            return Collections.emptyList();
+        }
+
+        MappedByteBuffer atual = mapa;
+        EventoRastreio[] eventos = new EventoRastreio[cabeca.quantidadeEventos];
+        long posicao = cabeca.ultimoEvento;
+        for (int i = eventos.length - 1; i >= 0; i--) {
+            Leitura leitura = new Leitura(atual, posicao);
+            eventos[i] = leitura.evento();
+            posicao = leitura.anterior;
+        }
+        return List.of(eventos);
+    }
+
+    public Rastreio getRastreio(String codigoRastreio) {
+        Cabeca cabeca = cabecas.get(codigoRastreio);
+        if (cabeca == null) {
+            return null;
+        }
+
+        List<EventoRastreio> cronologia = cronologia(cabeca);
+        if (cabeca.remessa == SEM_REGISTRO) {
+            String status = cronologia.isEmpty() ? null : cronologia.get(cronologia.size() - 1).status();
+            return new Rastreio(0, status, null, null, null, cronologia);
+        }
+
+        Leitura remessa = new Leitura(mapa, cabeca.remessa);
+        long codigo = remessa.numero();
+        return new Rastreio(codigo, remessa.texto(), remessa.texto(), remessa.texto(), remessa.texto(), cronologia);
+    }
+
+    public int getQuantidadeCodigos() {
+        return cabecas.size();
+    }
+
+    public synchronized long getTamanhoBytes() {
+        return fim;
+    }
+
+    // Força a gravação das páginas alteradas em disco
+    public synchronized void sincronizar() {
+        mapa.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+
+    // Registro: tamanho (int), tipo (byte), anterior (long), código, número (long), textos com tamanho (int, -1 para null)
+    private long acrescentar(byte tipo, long anterior, String codigoRastreio, long numero, String... textos) {
+        byte[] codigo = codigoRastreio.getBytes(StandardCharsets.UTF_8);
+        byte[][] valores = new byte[textos.length][];
+        int tamanho = 4 + 1 + 8 + 4 + codigo.length + 8;
+        for (int i = 0; i < textos.length; i++) {
+            valores[i] = textos[i] == null ? null : textos[i].getBytes(StandardCharsets.UTF_8);
+            tamanho += 4 + (valores[i] == null ? 0 : valores[i].length);
+        }
+
+        garantirEspaco(fim + tamanho);
+        MappedByteBuffer destino = mapa;
+        long posicao = fim;
+        int p = (int) posicao;
+        destino.putInt(p, tamanho);
+        destino.put(p + 4, tipo);
+        destino.putLong(p + 5, anterior);
+        destino.putInt(p + 13, codigo.length);
+        destino.put(p + 17, codigo);
+        p += 17 + codigo.length;
+        destino.putLong(p, numero);
+        p += 8;
+        for (byte[] valor : valores) {
+            destino.putInt(p, valor == null ? -1 : valor.length);
+            p += 4;
+            if (valor != null) {
+                destino.put(p, valor);
+                p += valor.length;
+            }
+        }
+
+        // O fim só avança depois do registro completo, então se o processo cair no meio o cabeçalho ainda aponta
+        // para o registro anterior. Numa queda do sistema o disco pode receber as páginas em outra ordem (só
+        // sincronizar garante a gravação); por isso a abertura confere cada registro e descarta a cauda inválida
+        fim = posicao + tamanho;
+        destino.putLong(POSICAO_FIM, fim);
+        return posicao;
+    }
+
+    private void garantirEspaco(long necessario) {
+        if (necessario <= mapa.capacity()) {
+            return;
+        }
+        if (necessario > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Log de rastreio cheio");
+        }
+
+        long novoTamanho = Math.min(Integer.MAX_VALUE, Math.max(necessario, (long) mapa.capacity() * 2));
+        try {
+            mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, novoTamanho);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ampliar o log de rastreio", e);
+        }
+    }
+
+    // Para no primeiro registro inválido (tamanho zerado ou corrompido, cauda truncada após uma queda) e trunca o
+    // log ali, em vez de seguir lendo lixo
+    private void reconstruirIndice() {
+        long posicao = CABECALHO;
+        while (posicao < fim) {
+            Leitura leitura = lerRegistro(posicao);
+            if (leitura == null) {
+                break;
+            }
+
+            String codigo = leitura.codigo;
+            Cabeca atual = cabecas.get(codigo);
+            if (leitura.tipo == TIPO_REMESSA) {
+                cabecas.put(codigo, atual == null
+                        ? new Cabeca(posicao, SEM_REGISTRO, 0)
+                        : new Cabeca(posicao, atual.ultimoEvento, atual.quantidadeEventos));
+            } else {
+                cabecas.put(codigo, atual == null
+                        ? new Cabeca(SEM_REGISTRO, posicao, 1)
+                        : new Cabeca(atual.remessa, posicao, atual.quantidadeEventos + 1));
+            }
+            posicao += leitura.tamanho;
+        }
+
+        if (posicao != fim) {
+            fim = posicao;
+            mapa.putLong(POSICAO_FIM, fim);
+        }
+    }
+
+    // Lê o registro inteiro e confere que os campos fecham com o tamanho gravado; null se estiver corrompido
+    private Leitura lerRegistro(long posicao) {
+        int tamanho = mapa.getInt((int) posicao);
+        if (tamanho < TAMANHO_MINIMO_REGISTRO || tamanho > fim - posicao) {
+            return null;
+        }
+
+        try {
+            Leitura leitura = new Leitura(mapa, posicao);
+            Cabeca atual = cabecas.get(leitura.codigo);
+            if (leitura.tipo == TIPO_REMESSA) {
+                leitura.numero();
+                for (int i = 0; i < 4; i++) {
+                    leitura.texto();
+                }
+            } else if (leitura.tipo == TIPO_EVENTO
+                    && leitura.anterior == (atual == null ? SEM_REGISTRO : atual.ultimoEvento)) {
+                leitura.evento();
+            } else {
+                return null;
+            }
+            return leitura.p == posicao + tamanho ? leitura : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Entradas imutáveis, trocadas inteiras, para que leitores nunca vejam uma cabeça pela metade
+    private static final class Cabeca {
+        private final long remessa;
+        private final long ultimoEvento;
+        private final int quantidadeEventos;
+
+        private Cabeca(long remessa, long ultimoEvento, int quantidadeEventos) {
+            this.remessa = remessa;
+            this.ultimoEvento = ultimoEvento;
+            this.quantidadeEventos = quantidadeEventos;
+        }
+    }
+
+    // Cursor sobre um registro, lendo os campos na ordem em que foram gravados
+    private static final class Leitura {
+        private final MappedByteBuffer mapa;
+        private final int tamanho;
+        private final byte tipo;
+        private final long anterior;
+        private final String codigo;
+        private int p;
+
+        private Leitura(MappedByteBuffer mapa, long posicao) {
+            this.mapa = mapa;
+            this.p = (int) posicao;
+            this.tamanho = mapa.getInt(p);
+            this.tipo = mapa.get(p + 4);
+            this.anterior = mapa.getLong(p + 5);
+            p += 13;
+            this.codigo = texto();
+        }
+
+        private long numero() {
+            long valor = mapa.getLong(p);
+            p += 8;
+            return valor;
+        }
+
+        private EventoRastreio evento() {
+            p += 8; // número, não usado em eventos
+            return new EventoRastreio(texto(), texto(), texto());
+        }
+
+        private String texto() {
+            int tamanhoTexto = mapa.getInt(p);
+            p += 4;
+            if (tamanhoTexto < 0) {
+                return null;
+            }
+            if (tamanhoTexto > mapa.capacity() - p) {
+                throw new IllegalStateException("Texto além do fim do log de rastreio");
+            }
+            byte[] bytes = new byte[tamanhoTexto];
+            mapa.get(p, bytes);
+            p += tamanhoTexto;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package Services;
+
+import Interface.InterfacePedidoRastreioService;
+import Model.Rastreio;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Contrato de rastreio estendido com o objeto Rastreio e consultas assíncronas e em lote. Fica em Services para que
+// InterfacePedidoRastreioService continue como está, sem depender das implementações
+public interface PedidoRastreioService extends InterfacePedidoRastreioService {
+
+    // Adaptador sobre o JSON do contrato original; quem já tem o objeto deve sobrescrever para não passar pelo texto
+    public default Rastreio getRastreio(String codigoRastreio) {
+        return RastreioJson.lerTexto(getDadosRastreio(codigoRastreio));
+    }
+
+    public default CompletableFuture<Rastreio> getRastreioAsync(String codigoRastreio) {
+        return ConsultaRastreioParalela.consultarAsync(this::getRastreio, codigoRastreio);
+    }
+
+    public default CompletableFuture<String> getDadosRastreioAsync(String codigoRastreio) {
+        return ConsultaRastreioParalela.consultarAsync(this::getDadosRastreio, codigoRastreio);
+    }
+
+    public default Map<String, String> getDadosRastreioEmLote(Collection<String> codigosRastreio) {
+        return getDadosRastreioEmLote(codigosRastreio, ConsultaRastreioParalela.CONCORRENCIA_PADRAO,
+                ConsultaRastreioParalela.TIMEOUT_PADRAO_MILLIS);
+    }
+
+    public default Map<String, String> getDadosRastreioEmLote(Collection<String> codigosRastreio, int concorrencia,
+                                                              long timeoutMillis) {
+        return ConsultaRastreioParalela.consultar(this::getDadosRastreio, codigosRastreio, concorrencia, timeoutMillis);
+    }
+
+    // Usa a implementação como está se ela já for um PedidoRastreioService; senão, adapta pelo JSON
+    public static PedidoRastreioService de(InterfacePedidoRastreioService servico) {
+        if (servico instanceof PedidoRastreioService) {
+            return (PedidoRastreioService) servico;
+        }
+        return servico::getDadosRastreio;
+    }
+}
@@ -0,0 +1,152 @@
+package Services;
+
+import Interface.InterfacePedidoRastreioService;
+import Model.Rastreio;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decorator que guarda as respostas do provedor e junta consultas simultâneas do mesmo código numa só chamada
+public class PedidoRastreioServiceCache implements PedidoRastreioService {
+
+    private static final long TTL_ENTREGUE_PADRAO_MILLIS = TimeUnit.HOURS.toMillis(6);
+    private static final long TTL_EM_TRANSITO_PADRAO_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_ENTRADAS_PADRAO = 10000;
+
+    private final PedidoRastreioService servico;
+    private final long ttlEntregueNanos;
+    private final long ttlEmTransitoNanos;
+    private final int maxEntradas;
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Rastreio>> emAndamento = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescidas = new LongAdder();
+
+    public PedidoRastreioServiceCache(InterfacePedidoRastreioService servico) {
+        this(servico, TTL_ENTREGUE_PADRAO_MILLIS, TTL_EM_TRANSITO_PADRAO_MILLIS, MAX_ENTRADAS_PADRAO);
+    }
+
+    public PedidoRastreioServiceCache(InterfacePedidoRastreioService servico, long ttlEntregueMillis,
+                                      long ttlEmTransitoMillis, int maxEntradas) {
+        this.servico = PedidoRastreioService.de(servico);
+        this.ttlEntregueNanos = TimeUnit.MILLISECONDS.toNanos(ttlEntregueMillis);
+        this.ttlEmTransitoNanos = TimeUnit.MILLISECONDS.toNanos(ttlEmTransitoMillis);
+        this.maxEntradas = maxEntradas;
+    }
+
+    @Override
+    public String getDadosRastreio(String codigoRastreio) {
+        return RastreioJson.escreverTexto(getRastreio(codigoRastreio));
+    }
+
+    @Override
+    public Rastreio getRastreio(String codigoRastreio) {
+        if (codigoRastreio == null) {
+            return servico.getRastreio(null);
+        }
+
+        Entrada entrada = cache.get(codigoRastreio);
+        if (entrada != null && System.nanoTime() - entrada.expiraEm < 0) {
+            hits.increment();
+            return entrada.resposta;
+        }
+
+        CompletableFuture<Rastreio> consulta = new CompletableFuture<>();
+        CompletableFuture<Rastreio> existente = emAndamento.putIfAbsent(codigoRastreio, consulta);
+        if (existente != null) {
+            coalescidas.increment();
+            return aguardar(existente);
+        }
+
+        try {
+            // Outra consulta pode ter terminado e guardado a resposta entre a primeira leitura e o putIfAbsent
+            entrada = cache.get(codigoRastreio);
+            if (entrada != null && System.nanoTime() - entrada.expiraEm < 0) {
+                hits.increment();
+                consulta.complete(entrada.resposta);
+                return entrada.resposta;
+            }
+
+            misses.increment();
+            Rastreio resposta = servico.getRastreio(codigoRastreio);
+            guardar(codigoRastreio, resposta);
+            consulta.complete(resposta);
+            return resposta;
+        } catch (Throwable e) {
+            // Inclui Error: quem está esperando em aguardar não pode ficar preso
+            consulta.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(codigoRastreio, consulta);
+        }
+    }
+
+    public void invalidar(String codigoRastreio) {
+        cache.remove(codigoRastreio);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCoalescidas() {
+        return coalescidas.sum();
+    }
+
+    private void guardar(String codigoRastreio, Rastreio resposta) {
+        if (resposta == null) {
+            return;
+        }
+
+        long ttl = resposta.isEntregue() ? ttlEntregueNanos : ttlEmTransitoNanos;
+        if (cache.size() >= maxEntradas) {
+            liberarEspaco();
+        }
+        cache.put(codigoRastreio, new Entrada(resposta, System.nanoTime() + ttl));
+    }
+
+    private void liberarEspaco() {
+        long agora = System.nanoTime();
+        cache.values().removeIf(e -> agora - e.expiraEm >= 0);
+
+        Iterator<String> codigos = cache.keySet().iterator();
+        while (cache.size() >= maxEntradas && codigos.hasNext()) {
+            codigos.next();
+            codigos.remove();
+        }
+    }
+
+    private static Rastreio aguardar(CompletableFuture<Rastreio> consulta) {
+        try {
+            return consulta.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entrada {
+        private final Rastreio resposta;
+        private final long expiraEm;
+
+        private Entrada(Rastreio resposta, long expiraEm) {
+            this.resposta = resposta;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package Services;
+
+import Model.Rastreio;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stub que simula a latência de um provedor remoto, para medir as consultas em lote
+public class PedidoRastreioServiceLatenciaStub implements PedidoRastreioService {
+
+    private final PedidoRastreioService servico = new PedidoRastreioServiceStub();
+    private final long latenciaMillis;
+    private final long variacaoMillis;
+
+    public PedidoRastreioServiceLatenciaStub(long latenciaMillis, long variacaoMillis) {
+        this.latenciaMillis = latenciaMillis;
+        this.variacaoMillis = variacaoMillis;
+    }
+
+    @Override
+    public String getDadosRastreio(String codigoRastreio) {
+        return RastreioJson.escreverTexto(getRastreio(codigoRastreio));
+    }
+
+    @Override
+    public Rastreio getRastreio(String codigoRastreio) {
+        long espera = latenciaMillis + (variacaoMillis > 0 ? ThreadLocalRandom.current().nextLong(variacaoMillis + 1) : 0);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta de rastreio interrompida", e);
+        }
+        return servico.getRastreio(codigoRastreio);
+    }
+}
@@ -0,0 +1,27 @@
+package Services;
+
+import Model.Rastreio;
+
+// Atende o rastreio a partir do log local, sem consultar o provedor
+public class PedidoRastreioServiceLog implements PedidoRastreioService {
+
+    private final LogRastreio log;
+
+    public PedidoRastreioServiceLog(LogRastreio log) {
+        this.log = log;
+    }
+
+    @Override
+    public String getDadosRastreio(String codigoRastreio) {
+        return RastreioJson.escreverTexto(getRastreio(codigoRastreio));
+    }
+
+    @Override
+    public Rastreio getRastreio(String codigoRastreio) {
+        return codigoRastreio == null ? null : log.getRastreio(codigoRastreio);
+    }
+
+    public String getStatusAtual(String codigoRastreio) {
+        return codigoRastreio == null ? null : log.getStatusAtual(codigoRastreio);
+    }
+}
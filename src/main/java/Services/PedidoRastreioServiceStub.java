@@ -1,28 +1,24 @@
 package Services;
 
-import Interface.InterfacePedidoRastreioService;
+import Model.EventoRastreio;
+import Model.Rastreio;
 
-public class PedidoRastreioServiceStub implements InterfacePedidoRastreioService {
+import java.util.List;
 
+public class PedidoRastreioServiceStub implements PedidoRastreioService {
+
+    private static final Rastreio RASTREIO = new Rastreio(100, "Em trânsito", "Log Express",
+            "2025-06-25T15:00:00", "2025-07-07", List.of(
+                    new EventoRastreio("2025-06-28T16:40:00", "Curitiba - PR", "Chegou na unidade"),
+                    new EventoRastreio("2025-06-29T18:10:00", "Curitiba - PR", "Saiu da unidade")));
+
+    @Override
     public String getDadosRastreio(String codigoRastreio) {
-        return "{" +
-            "\"codigo\": 100," +
-            "\"status\": \"Em trânsito\","+
-            "\"transportadora\": \"Log Express\"" +
-            "\"dataPostagem\": \"2025-06-25T15:00:00\"," +
-            "\"previsaoEntrega\": \"2025-07-07\"," +
-            "\"cronologia\": [" +
-                "{" +
-                    "\"data\": \"2025-06-28T16:40:00\"," +
-                    "\"local\": \"Curitiba - PR\"," +
-                    "\"status\": \"Chegou na unidade\"" +
-                "},"+
-                "{" +
-                    "\"data\": \"2025-06-29T18:10:00\"," +
-                    "\"local\": \"Curitiba - PR\"," +
-                    "\"status\": \"Saiu da unidade\"" +
-                "}" +
-            "]" +
-        "}";
+        return RastreioJson.escreverTexto(getRastreio(codigoRastreio));
+    }
+
+    @Override
+    public Rastreio getRastreio(String codigoRastreio) {
+        return RASTREIO;
     }
 }
@@ -0,0 +1,547 @@
+package Services;
+
+import Model.EventoRastreio;
+import Model.Rastreio;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Serialização do rastreio direto entre os records e bytes UTF-8, sem montar Strings intermediárias
+public final class RastreioJson {
+
+    private static final byte[] CODIGO = chave("codigo");
+    private static final byte[] STATUS = chave("status");
+    private static final byte[] TRANSPORTADORA = chave("transportadora");
+    private static final byte[] DATA_POSTAGEM = chave("dataPostagem");
+    private static final byte[] PREVISAO_ENTREGA = chave("previsaoEntrega");
+    private static final byte[] CRONOLOGIA = chave("cronologia");
+    private static final byte[] DATA = chave("data");
+    private static final byte[] LOCAL = chave("local");
+    private static final byte[] NULL = chave("null");
+    private static final byte[] HEX = chave("0123456789abcdef");
+
+    private RastreioJson() {
+    }
+
+    public static byte[] escrever(Rastreio rastreio) {
+        Escritor escritor = new Escritor(ByteBuffer.allocate(256), true);
+        escritor.rastreio(rastreio);
+        ByteBuffer destino = escritor.destino;
+        return Arrays.copyOf(destino.array(), destino.position());
+    }
+
+    // Formato do contrato original (getDadosRastreio); null vira null
+    public static String escreverTexto(Rastreio rastreio) {
+        return rastreio == null ? null : new String(escrever(rastreio), StandardCharsets.UTF_8);
+    }
+
+    public static Rastreio lerTexto(String json) {
+        return json == null ? null : ler(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Escreve a partir da posição atual do buffer; lança BufferOverflowException se não couber
+    public static void escrever(Rastreio rastreio, ByteBuffer destino) {
+        new Escritor(destino, false).rastreio(rastreio);
+    }
+
+    public static Rastreio ler(byte[] json) {
+        return ler(ByteBuffer.wrap(json));
+    }
+
+    // Lê do position ao limit do buffer, que avança até o fim do objeto lido
+    public static Rastreio ler(ByteBuffer json) {
+        Leitor leitor = new Leitor(json);
+        Rastreio rastreio = leitor.rastreio();
+        json.position(leitor.pos);
+        return rastreio;
+    }
+
+    private static byte[] chave(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Escritor {
+        private ByteBuffer destino;
+        private final boolean crescer;
+
+        private Escritor(ByteBuffer destino, boolean crescer) {
+            this.destino = destino;
+            this.crescer = crescer;
+        }
+
+        private void rastreio(Rastreio rastreio) {
+            if (rastreio == null) {
+                bytes(NULL);
+                return;
+            }
+
+            put('{');
+            campo(CODIGO);
+            numero(rastreio.codigo());
+            put(',');
+            campo(STATUS);
+            texto(rastreio.status());
+            put(',');
+            campo(TRANSPORTADORA);
+            texto(rastreio.transportadora());
+            put(',');
+            campo(DATA_POSTAGEM);
+            texto(rastreio.dataPostagem());
+            put(',');
+            campo(PREVISAO_ENTREGA);
+            texto(rastreio.previsaoEntrega());
+            put(',');
+            campo(CRONOLOGIA);
+            put('[');
+            List<EventoRastreio> eventos = rastreio.cronologia();
+            for (int i = 0; i < eventos.size(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                EventoRastreio evento = eventos.get(i);
+                put('{');
+                campo(DATA);
+                texto(evento.data());
+                put(',');
+                campo(LOCAL);
+                texto(evento.local());
+                put(',');
+                campo(STATUS);
+                texto(evento.status());
+                put('}');
+            }
+            put(']');
+            put('}');
+        }
+
+        private void campo(byte[] nome) {
+            put('"');
+            bytes(nome);
+            put('"');
+            put(':');
+        }
+
+        private void numero(long valor) {
+            if (valor == Long.MIN_VALUE) {
+                bytes(chave(Long.toString(valor)));
+                return;
+            }
+            if (valor < 0) {
+                put('-');
+                valor = -valor;
+            }
+
+            byte[] digitos = new byte[19];
+            int n = 0;
+            do {
+                digitos[n++] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            } while (valor != 0);
+            while (n > 0) {
+                put(digitos[--n]);
+            }
+        }
+
+        private void texto(String valor) {
+            if (valor == null) {
+                bytes(NULL);
+                return;
+            }
+
+            put('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put('\\');
+                    put(c);
+                } else if (c < 0x20) {
+                    put('\\');
+                    put('u');
+                    put('0');
+                    put('0');
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                } else if (c < 0x80) {
+                    put(c);
+                } else if (c < 0x800) {
+                    put(0xC0 | (c >> 6));
+                    put(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < valor.length()
+                        && Character.isLowSurrogate(valor.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, valor.charAt(++i));
+                    put(0xF0 | (cp >> 18));
+                    put(0x80 | ((cp >> 12) & 0x3F));
+                    put(0x80 | ((cp >> 6) & 0x3F));
+                    put(0x80 | (cp & 0x3F));
+                } else {
+                    put(0xE0 | (c >> 12));
+                    put(0x80 | ((c >> 6) & 0x3F));
+                    put(0x80 | (c & 0x3F));
+                }
+            }
+            put('"');
+        }
+
+        private void bytes(byte[] valor) {
+            for (byte b : valor) {
+                put(b);
+            }
+        }
+
+        private void put(int b) {
+            if (!destino.hasRemaining()) {
+                if (!crescer) {
+                    throw new BufferOverflowException();
+                }
+                ByteBuffer maior = ByteBuffer.allocate(destino.capacity() * 2);
+                destino.flip();
+                maior.put(destino);
+                destino = maior;
+            }
+            destino.put((byte) b);
+        }
+    }
+
+    private static final class Leitor {
+        private final ByteBuffer json;
+        private final int fim;
+        private int pos;
+
+        private Leitor(ByteBuffer json) {
+            this.json = json;
+            this.pos = json.position();
+            this.fim = json.limit();
+        }
+
+        private Rastreio rastreio() {
+            espacos();
+            if (nulo()) {
+                return null;
+            }
+
+            long codigo = 0;
+            String status = null;
+            String transportadora = null;
+            String dataPostagem = null;
+            String previsaoEntrega = null;
+            List<EventoRastreio> cronologia = null;
+
+            esperar('{');
+            if (!consumir('}')) {
+                do {
+                    int inicio = nome();
+                    int tamanho = pos - inicio - 1;
+                    esperar(':');
+                    espacos();
+                    if (igual(inicio, tamanho, CODIGO)) {
+                        codigo = numero();
+                    } else if (igual(inicio, tamanho, STATUS)) {
+                        status = texto();
+                    } else if (igual(inicio, tamanho, TRANSPORTADORA)) {
+                        transportadora = texto();
+                    } else if (igual(inicio, tamanho, DATA_POSTAGEM)) {
+                        dataPostagem = texto();
+                    } else if (igual(inicio, tamanho, PREVISAO_ENTREGA)) {
+                        previsaoEntrega = texto();
+                    } else if (igual(inicio, tamanho, CRONOLOGIA)) {
+                        cronologia = eventos();
+                    } else {
+                        pular();
+                    }
+                } while (proximo('}'));
+            }
+
+            return new Rastreio(codigo, status, transportadora, dataPostagem, previsaoEntrega, cronologia);
+        }
+
+        private List<EventoRastreio> eventos() {
+            if (nulo()) {
+                return null;
+            }
+
+            List<EventoRastreio> eventos = new ArrayList<>();
+            esperar('[');
+            if (consumir(']')) {
+                return eventos;
+            }
+            do {
+                espacos();
+                String data = null;
+                String local = null;
+                String status = null;
+
+                esperar('{');
+                if (!consumir('}')) {
+                    do {
+                        int inicio = nome();
+                        int tamanho = pos - inicio - 1;
+                        esperar(':');
+                        espacos();
+                        if (igual(inicio, tamanho, DATA)) {
+                            data = texto();
+                        } else if (igual(inicio, tamanho, LOCAL)) {
+                            local = texto();
+                        } else if (igual(inicio, tamanho, STATUS)) {
+                            status = texto();
+                        } else {
+                            pular();
+                        }
+                    } while (proximo('}'));
+                }
+                eventos.add(new EventoRastreio(data, local, status));
+            } while (proximo(']'));
+            return eventos;
+        }
+
+        // Lê o nome do campo sem decodificar; retorna a posição logo após a aspa de abertura
+        private int nome() {
+            espacos();
+            esperar('"');
+            int inicio = pos;
+            while (pos < fim && json.get(pos) != '"') {
+                if (json.get(pos) == '\\') {
+                    pos++;
+                }
+                pos++;
+            }
+            esperar('"');
+            return inicio;
+        }
+
+        private boolean igual(int inicio, int tamanho, byte[] nome) {
+            if (tamanho != nome.length) {
+                return false;
+            }
+            for (int i = 0; i < tamanho; i++) {
+                if (json.get(inicio + i) != nome[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long numero() {
+            boolean negativo = pos < fim && json.get(pos) == '-';
+            if (negativo) {
+                pos++;
+            }
+
+            // Acumula em negativo, que tem um valor a mais que o positivo, para aceitar Long.MIN_VALUE
+            int inicio = pos;
+            long valor = 0;
+            try {
+                while (pos < fim && json.get(pos) >= '0' && json.get(pos) <= '9') {
+                    valor = Math.subtractExact(Math.multiplyExact(valor, 10), json.get(pos++) - '0');
+                }
+                if (pos == inicio) {
+                    throw erro();
+                }
+                return negativo ? valor : Math.negateExact(valor);
+            } catch (ArithmeticException e) {
+                throw erro();
+            }
+        }
+
+        private String texto() {
+            if (nulo()) {
+                return null;
+            }
+
+            esperar('"');
+            int inicio = pos;
+            while (pos < fim) {
+                byte b = json.get(pos);
+                if (b == '"') {
+                    String valor = decodificar(inicio, pos);
+                    pos++;
+                    return valor;
+                }
+                if (b == '\\') {
+                    return textoComEscapes(inicio);
+                }
+                pos++;
+            }
+            throw erro();
+        }
+
+        // Caminho lento, só para textos com escapes: resolve em um byte[] e decodifica uma vez
+        private String textoComEscapes(int inicio) {
+            byte[] saida = new byte[fim - inicio];
+            int n = 0;
+            for (int i = inicio; i < pos; i++) {
+                saida[n++] = json.get(i);
+            }
+
+            while (pos < fim) {
+                byte b = json.get(pos++);
+                if (b == '"') {
+                    return new String(saida, 0, n, StandardCharsets.UTF_8);
+                }
+                if (b != '\\') {
+                    saida[n++] = b;
+                    continue;
+                }
+                if (pos >= fim) {
+                    break;
+                }
+
+                byte escape = json.get(pos++);
+                switch (escape) {
+                    case 'b': saida[n++] = '\b'; break;
+                    case 'f': saida[n++] = '\f'; break;
+                    case 'n': saida[n++] = '\n'; break;
+                    case 'r': saida[n++] = '\r'; break;
+                    case 't': saida[n++] = '\t'; break;
+                    case 'u':
+                        int c = hex();
+                        if (Character.isHighSurrogate((char) c) && pos + 1 < fim
+                                && json.get(pos) == '\\' && json.get(pos + 1) == 'u') {
+                            pos += 2;
+                            c = Character.toCodePoint((char) c, (char) hex());
+                        }
+                        n = utf8(saida, n, c);
+                        break;
+                    default: saida[n++] = escape;
+                }
+            }
+            throw erro();
+        }
+
+        private int hex() {
+            if (pos + 4 > fim) {
+                throw erro();
+            }
+            int valor = 0;
+            for (int i = 0; i < 4; i++) {
+                int digito = Character.digit(json.get(pos++), 16);
+                if (digito < 0) {
+                    throw erro();
+                }
+                valor = (valor << 4) | digito;
+            }
+            return valor;
+        }
+
+        private static int utf8(byte[] saida, int n, int cp) {
+            if (cp < 0x80) {
+                saida[n++] = (byte) cp;
+            } else if (cp < 0x800) {
+                saida[n++] = (byte) (0xC0 | (cp >> 6));
+                saida[n++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (cp < 0x10000) {
+                saida[n++] = (byte) (0xE0 | (cp >> 12));
+                saida[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                saida[n++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                saida[n++] = (byte) (0xF0 | (cp >> 18));
+                saida[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                saida[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                saida[n++] = (byte) (0x80 | (cp & 0x3F));
+            }
+            return n;
+        }
+
+        private String decodificar(int inicio, int fimTexto) {
+            if (json.hasArray()) {
+                return new String(json.array(), json.arrayOffset() + inicio, fimTexto - inicio, StandardCharsets.UTF_8);
+            }
+            byte[] copia = new byte[fimTexto - inicio];
+            json.get(inicio, copia);
+            return new String(copia, StandardCharsets.UTF_8);
+        }
+
+        // Ignora o valor de um campo desconhecido, inclusive objetos e listas aninhados
+        private void pular() {
+            espacos();
+            if (pos >= fim) {
+                throw erro();
+            }
+
+            byte b = json.get(pos);
+            if (b == '"') {
+                texto();
+                return;
+            }
+            if (b == '{' || b == '[') {
+                int profundidade = 0;
+                while (pos < fim) {
+                    b = json.get(pos);
+                    if (b == '"') {
+                        texto();
+                        continue;
+                    }
+                    pos++;
+                    if (b == '{' || b == '[') {
+                        profundidade++;
+                    } else if ((b == '}' || b == ']') && --profundidade == 0) {
+                        return;
+                    }
+                }
+                throw erro();
+            }
+
+            // Número, true, false ou null
+            while (pos < fim) {
+                b = json.get(pos);
+                if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean nulo() {
+            if (pos + NULL.length <= fim && igual(pos, NULL.length, NULL)) {
+                pos += NULL.length;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consumir(char c) {
+            espacos();
+            if (pos < fim && json.get(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        // Depois de um item: true se vier uma vírgula, false se o objeto ou lista terminou
+        private boolean proximo(char fechamento) {
+            if (consumir(',')) {
+                return true;
+            }
+            if (consumir(fechamento)) {
+                return false;
+            }
+            throw erro();
+        }
+
+        private void esperar(char c) {
+            espacos();
+            if (pos >= fim || json.get(pos) != c) {
+                throw erro();
+            }
+            pos++;
+        }
+
+        private void espacos() {
+            while (pos < fim) {
+                byte b = json.get(pos);
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException erro() {
+            return new IllegalArgumentException("JSON de rastreio inválido na posição " + pos);
+        }
+    }
+}
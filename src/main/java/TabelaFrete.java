@@ -0,0 +1,150 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Tabela de frete por faixas de CEP, ordenada para busca binária
+public class TabelaFrete {
+
+    public static final String PROPRIEDADE_ARQUIVO = "frete.tabela";
+    private static final String RECURSO_PADRAO = "/tabela-frete.csv";
+
+    private final int[] inicios;
+    private final int[] fins;
+    private final CotacaoFrete[] cotacoes;
+
+    private TabelaFrete(List<Faixa> faixas) {
+        faixas.sort(Comparator.comparingInt(f -> f.inicio));
+
+        inicios = new int[faixas.size()];
+        fins = new int[faixas.size()];
+        cotacoes = new CotacaoFrete[faixas.size()];
+        for (int i = 0; i < faixas.size(); i++) {
+            Faixa faixa = faixas.get(i);
+            if (i > 0 && faixa.inicio <= fins[i - 1]) {
+                throw new IllegalArgumentException("Faixas de CEP sobrepostas na tabela de frete: " + faixa.linha);
+            }
+            inicios[i] = faixa.inicio;
+            fins[i] = faixa.fim;
+            cotacoes[i] = faixa.cotacao;
+        }
+    }
+
+    public static TabelaFrete padrao() {
+        return Padrao.TABELA;
+    }
+
+    // Usa o arquivo da propriedade frete.tabela, se definida, ou a tabela empacotada com a aplicação
+    public static TabelaFrete carregarPadrao() {
+        String arquivo = System.getProperty(PROPRIEDADE_ARQUIVO);
+        try {
+            if (arquivo != null) {
+                return carregar(Paths.get(arquivo));
+            }
+            try (InputStream in = TabelaFrete.class.getResourceAsStream(RECURSO_PADRAO)) {
+                if (in == null) {
+                    throw new IllegalStateException("Tabela de frete não encontrada: " + RECURSO_PADRAO);
+                }
+                return carregar(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao carregar a tabela de frete", e);
+        }
+    }
+
+    public static TabelaFrete carregar(Path arquivo) throws IOException {
+        try (Reader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            return carregar(reader);
+        }
+    }
+
+    // Formato: cepInicio;cepFim;valor;prazoDias por linha, com # para comentários
+    public static TabelaFrete carregar(Reader reader) throws IOException {
+        List<Faixa> faixas = new ArrayList<>();
+        BufferedReader linhas = new BufferedReader(reader);
+
+        String linha;
+        while ((linha = linhas.readLine()) != null) {
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+
+            String[] campos = linha.split(";");
+            if (campos.length != 4) {
+                throw new IllegalArgumentException("Linha inválida na tabela de frete: " + linha);
+            }
+
+            int inicio = Cep.parse(campos[0].trim());
+            int fim = Cep.parse(campos[1].trim());
+            if (inicio == Cep.INVALIDO || fim == Cep.INVALIDO || fim < inicio) {
+                throw new IllegalArgumentException("Faixa de CEP inválida na tabela de frete: " + linha);
+            }
+
+            long valorCentavos;
+            int prazoDias;
+            try {
+                valorCentavos = new BigDecimal(campos[2].trim().replace(',', '.')).movePointRight(2).longValueExact();
+                prazoDias = Integer.parseInt(campos[3].trim());
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new IllegalArgumentException("Valor ou prazo inválido na tabela de frete: " + linha, e);
+            }
+
+            faixas.add(new Faixa(inicio, fim, new CotacaoFrete(valorCentavos, prazoDias), linha));
+        }
+
+        return new TabelaFrete(faixas);
+    }
+
+    // Retorna a cotação da faixa que contém o CEP (já convertido por Cep.parse) ou null se nenhuma atende
+    public CotacaoFrete cotar(int cep) {
+        int baixo = 0;
+        int alto = inicios.length - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (inicios[meio] <= cep) {
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+
+        // alto é a última faixa que começa antes do CEP
+        if (alto >= 0 && cep <= fins[alto]) {
+            return cotacoes[alto];
+        }
+        return null;
+    }
+
+    public int getQuantidadeFaixas() {
+        return inicios.length;
+    }
+
+    private static final class Padrao {
+        private static final TabelaFrete TABELA = carregarPadrao();
+    }
+
+    private static final class Faixa {
+        private final int inicio;
+        private final int fim;
+        private final CotacaoFrete cotacao;
+        private final String linha;
+
+        private Faixa(int inicio, int fim, CotacaoFrete cotacao, String linha) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.cotacao = cotacao;
+            this.linha = linha;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 public class Usuario {
 
     private String email;
+    private String nome;
     private String senha;
 
     public Usuario(String email, String senha) {
@@ -8,10 +9,20 @@ public class Usuario {
         this.senha = senha;
     }
 
+    public Usuario(String email, String nome, String senha) {
+        this.email = email;
+        this.nome = nome;
+        this.senha = senha;
+    }
+
     public void setEmail(String email) {
         this.email = email;
     }
 
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
     public void setSenha(String senha) {
         this.senha = senha;
     }
@@ -20,6 +31,10 @@ public class Usuario {
         return email;
     }
 
+    public String getNome() {
+        return nome;
+    }
+
     public String getSenha() {
         return senha;
     }
@@ -1,7 +1,24 @@
+import Enum.EnumLogin;
+
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class UsuarioDAO {
 
+    public static final int TAMANHO_LOTE_PADRAO = 500;
+
+    private static final long CACHE_LOGIN_TTL_POSITIVO_MILLIS = 30000;
+    private static final long CACHE_LOGIN_TTL_NEGATIVO_MILLIS = 5000;
+    private static final long CACHE_LOGIN_JANELA_TENTATIVAS_MILLIS = 60000;
+    private static final int CACHE_LOGIN_MAX_TENTATIVAS = 10;
+    private static final int CACHE_LOGIN_MAX_EMAILS = 100000;
+
+    private static final CacheLogin CACHE_LOGIN = new CacheLogin(CACHE_LOGIN_TTL_POSITIVO_MILLIS,
+            CACHE_LOGIN_TTL_NEGATIVO_MILLIS, CACHE_LOGIN_JANELA_TENTATIVAS_MILLIS,
+            CACHE_LOGIN_MAX_TENTATIVAS, CACHE_LOGIN_MAX_EMAILS);
+
     public boolean criarConta(String email, String nome, String senha) {
         String sql = "INSERT INTO usuarios (email, nome, senha) VALUES (?, ?, ?)";
         try (Connection conn = PostgresConnection.conectar();
@@ -11,6 +28,7 @@ public class UsuarioDAO {
             stmt.setString(2, nome);
             stmt.setString(3, senha);
             stmt.executeUpdate();
+            CACHE_LOGIN.invalidar(email);
             return true;
 
         } catch (SQLException e) {
@@ -19,16 +37,123 @@ public class UsuarioDAO {
         }
     }
 
+    public boolean[] criarContas(Collection<Usuario> usuarios) {
+        return criarContas(usuarios, TAMANHO_LOTE_PADRAO);
+    }
+
+    // Retorna, na ordem de entrada, se cada conta foi criada
+    public boolean[] criarContas(Collection<Usuario> usuarios, int tamanhoLote) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote inválido");
+        }
+
+        String sql = "INSERT INTO usuarios (email, nome, senha) VALUES (?, ?, ?)";
+        boolean[] resultado = new boolean[usuarios.size()];
+        List<Usuario> lote = new ArrayList<>(Math.min(tamanhoLote, usuarios.size()));
+        int inicioLote = 0;
+
+        try (Connection conn = PostgresConnection.conectar();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+
+            for (Usuario usuario : usuarios) {
+                lote.add(usuario);
+                if (lote.size() == tamanhoLote) {
+                    executarLote(conn, stmt, lote, resultado, inicioLote);
+                    inicioLote += lote.size();
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                executarLote(conn, stmt, lote, resultado, inicioLote);
+            }
+
+        } catch (SQLException e) {
+            // Os registros ainda não processados ficam como false
+        }
+        return resultado;
+    }
+
+    private void executarLote(Connection conn, PreparedStatement stmt, List<Usuario> lote,
+                              boolean[] resultado, int inicioLote) throws SQLException {
+        try {
+            for (Usuario usuario : lote) {
+                if (usuario != null) {
+                    preencher(stmt, usuario);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+
+            for (int i = 0; i < lote.size(); i++) {
+                Usuario usuario = lote.get(i);
+                resultado[inicioLote + i] = usuario != null;
+                if (usuario != null) {
+                    CACHE_LOGIN.invalidar(usuario.getEmail());
+                }
+            }
+
+        } catch (BatchUpdateException e) {
+            conn.rollback();
+            stmt.clearBatch();
+
+            // Um e-mail duplicado aborta o lote inteiro, então ele é refeito linha a linha
+            for (int i = 0; i < lote.size(); i++) {
+                Usuario usuario = lote.get(i);
+                if (usuario == null) {
+                    continue;
+                }
+                try {
+                    preencher(stmt, usuario);
+                    stmt.executeUpdate();
+                    conn.commit();
+                    resultado[inicioLote + i] = true;
+                    CACHE_LOGIN.invalidar(usuario.getEmail());
+                } catch (SQLException ex) {
+                    conn.rollback();
+                }
+            }
+        }
+    }
+
+    private void preencher(PreparedStatement stmt, Usuario usuario) throws SQLException {
+        stmt.setString(1, usuario.getEmail());
+        stmt.setString(2, usuario.getNome());
+        stmt.setString(3, usuario.getSenha());
+    }
+
+    // Sob excesso de falhas responde LIMITADO sem conferir a senha; o chamador deve pedir para tentar mais tarde
+    public EnumLogin autenticar(String email, String senha) {
+        EnumLogin emCache = CACHE_LOGIN.consultar(email, senha);
+        if (emCache != null) {
+            return emCache;
+        }
+        return consultarLogin(email, senha) ? EnumLogin.VALIDO : EnumLogin.INVALIDO;
+    }
+
     public boolean fazerLogin(String email, String senha) {
-        String sql = "SELECT * FROM usuarios WHERE email = ? AND senha = ?";
+        EnumLogin emCache = CACHE_LOGIN.consultar(email, senha);
+        if (emCache != null && emCache != EnumLogin.LIMITADO) {
+            return emCache == EnumLogin.VALIDO;
+        }
+        // O boolean não tem como dizer "tente mais tarde", então sob limite a senha é conferida no banco
+        return consultarLogin(email, senha);
+    }
+
+    private boolean consultarLogin(String email, String senha) {
+        long geracao = CACHE_LOGIN.geracao(email);
+        String sql = "SELECT EXISTS (SELECT 1 FROM usuarios WHERE email = ? AND senha = ?)";
         try (Connection conn = PostgresConnection.conectar();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
             stmt.setString(2, senha);
-            ResultSet rs = stmt.executeQuery();
-
-            return rs.next(); // se encontrou o usuário, login é válido
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean valido = rs.next() && rs.getBoolean(1); // se encontrou o usuário, login é válido
+                CACHE_LOGIN.registrar(email, senha, valido, geracao);
+                return valido;
+            }
 
         } catch (SQLException e) {
             return false;
@@ -43,6 +168,8 @@ public class UsuarioDAO {
             stmt.executeUpdate();
         } catch (SQLException e) {
             // Ignorar
+        } finally {
+            CACHE_LOGIN.invalidar(email);
         }
     }
 }
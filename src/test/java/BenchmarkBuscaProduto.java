@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark da busca de produtos: varredura com String.contains (implementação anterior) contra o índice de trigramas.
+ * Uso: BenchmarkBuscaProduto [quantidades...]  (ex.: 10000 1000000 10000000; 10M exige -Xmx de alguns GB)
+ */
+public class BenchmarkBuscaProduto {
+
+    private static final String[] PALAVRAS = {"alexa", "notebook", "fone", "bluetooth", "smart", "tv", "cabo",
+            "usb", "carregador", "mouse", "teclado", "monitor", "caixa", "som", "kindle", "echo", "dot", "pop",
+            "controle", "gamer", "cadeira", "mesa", "lampada", "tomada", "inteligente", "sem", "fio", "pro", "max"};
+
+    private static final String[] TERMOS = {"alexa", "bluetooth", "gamer cad", "usb", "fio 4242", "kindle 99", "77777"};
+
+    public static void main(String[] args) {
+        int[] quantidades = args.length > 0
+                ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 1_000_000};
+
+        for (int quantidade : quantidades) {
+            List<String> nomes = gerarNomes(quantidade);
+
+            long inicio = System.nanoTime();
+            IndiceTrigramas indice = new IndiceTrigramas();
+            indice.adicionarTodos(nomes);
+            long construcao = System.nanoTime() - inicio;
+
+            int consultas = Math.max(5, 2_000_000 / quantidade);
+            long varredura = 0;
+            long busca = 0;
+            for (int rodada = 0; rodada < 2; rodada++) {
+                varredura = 0;
+                busca = 0;
+                for (int i = 0; i < consultas; i++) {
+                    String termo = TERMOS[i % TERMOS.length];
+
+                    long t0 = System.nanoTime();
+                    List<String> esperado = nomes.stream().filter(p -> p.contains(termo)).collect(Collectors.toList());
+                    long t1 = System.nanoTime();
+                    List<String> obtido = indice.buscar(termo);
+                    long t2 = System.nanoTime();
+
+                    if (!esperado.equals(obtido)) {
+                        throw new IllegalStateException("Resultado divergente para " + termo);
+                    }
+                    varredura += t1 - t0;
+                    busca += t2 - t1;
+                }
+            }
+
+            System.out.printf("%,d produtos: índice construído em %d ms | contains %,.1f us/busca | trigramas %,.1f us/busca%n",
+                    quantidade, construcao / 1_000_000, varredura / 1000.0 / consultas, busca / 1000.0 / consultas);
+        }
+    }
+
+    private static List<String> gerarNomes(int quantidade) {
+        Random random = new Random(42);
+        List<String> nomes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int palavras = 2 + random.nextInt(3);
+            StringBuilder nome = new StringBuilder();
+            for (int p = 0; p < palavras; p++) {
+                if (p > 0) {
+                    nome.append(' ');
+                }
+                nome.append(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+            }
+            nome.append(' ').append(i);
+            nomes.add(nome.toString());
+        }
+        return nomes;
+    }
+}
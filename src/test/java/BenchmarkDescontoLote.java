@@ -0,0 +1,46 @@
+import Model.Bo.ModelBoDesconto;
+import Model.ModelProduto;
+import Model.PercentualException;
+
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark do desconto de campanha: um ModelProduto por vez (implementação anterior) contra o lote em vetores primitivos.
+ * Uso: BenchmarkDescontoLote [produtos]
+ */
+public class BenchmarkDescontoLote {
+
+    public static void main(String[] args) throws PercentualException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        long[] precos = new long[quantidade];
+        long[] pontosBase = new long[quantidade];
+        double[] percentuais = new double[quantidade];
+        ModelProduto[] produtos = new ModelProduto[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            precos[i] = ThreadLocalRandom.current().nextLong(100, 1_000_000);
+            pontosBase[i] = ThreadLocalRandom.current().nextLong(0, 5_001);
+            percentuais[i] = pontosBase[i] / 100.0;
+            produtos[i] = new ModelProduto();
+            produtos[i].setValorCentavos(precos[i]);
+        }
+        long[] resultado = new long[quantidade];
+        double[] resultadoReais = new double[quantidade];
+
+        for (int rodada = 0; rodada < 5; rodada++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < quantidade; i++) {
+                resultadoReais[i] = ModelBoDesconto.calcularDesconto(produtos[i], percentuais[i]);
+            }
+            long porProduto = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            BitSet invalidos = ModelBoDesconto.calcularDescontos(precos, pontosBase, resultado);
+            long lote = System.nanoTime() - inicio;
+
+            System.out.printf("rodada %d: por produto %5d ms | lote %4d ms (%d inválidos)%n",
+                    rodada, porProduto / 1_000_000, lote / 1_000_000, invalidos.cardinality());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark do login: busca linear na lista (implementação anterior) contra o LoginService indexado por e-mail.
+ * Uso: BenchmarkLogin [usuarios] [consultas]
+ */
+public class BenchmarkLogin {
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        List<Usuario> usuarios = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            usuarios.add(new Usuario("usuario" + i + "@email.com", "senha" + i));
+        }
+
+        long inicio = System.nanoTime();
+        LoginService service = new LoginService(quantidade);
+        service.carregarUsuarios(usuarios);
+        System.out.printf("carga de %d usuários: %d ms%n", quantidade, (System.nanoTime() - inicio) / 1_000_000);
+
+        String[] emails = new String[consultas];
+        String[] senhas = new String[consultas];
+        for (int i = 0; i < consultas; i++) {
+            int n = ThreadLocalRandom.current().nextInt(quantidade);
+            emails[i] = "usuario" + n + "@email.com";
+            senhas[i] = "senha" + n;
+        }
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            long lista = medir(() -> {
+                int ok = 0;
+                for (int i = 0; i < consultas; i++) {
+                    if (buscaLinear(usuarios, emails[i], senhas[i])) {
+                        ok++;
+                    }
+                }
+                return ok;
+            });
+            long indice = medir(() -> {
+                int ok = 0;
+                for (int i = 0; i < consultas; i++) {
+                    if (service.realizarLogin(emails[i], senhas[i])) {
+                        ok++;
+                    }
+                }
+                return ok;
+            });
+
+            System.out.printf("rodada %d: lista %10.1f ns/login | índice %8.1f ns/login%n",
+                    rodada, (double) lista / consultas, (double) indice / consultas);
+        }
+    }
+
+    private static boolean buscaLinear(List<Usuario> usuarios, String email, String senha) {
+        for (Usuario u : usuarios) {
+            if (u.getEmail().equals(email) && u.getSenha().equals(senha)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long medir(java.util.function.IntSupplier tarefa) {
+        long inicio = System.nanoTime();
+        if (tarefa.getAsInt() < 0) {
+            throw new IllegalStateException();
+        }
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,44 @@
+import Services.PedidoRastreioService;
+import Services.PedidoRastreioServiceLatenciaStub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark do rastreio em lote: consultas uma a uma contra o lote em threads virtuais, com latência simulada.
+ * Uso: BenchmarkRastreioLote [codigos] [latenciaMillis] [concorrencia]
+ */
+public class BenchmarkRastreioLote {
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long latencia = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int concorrencia = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        PedidoRastreioService servico = new PedidoRastreioServiceLatenciaStub(latencia, latencia / 2);
+        List<String> codigos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            codigos.add(String.format("QM%07dBR", i));
+        }
+
+        long inicio = System.nanoTime();
+        int sequenciais = 0;
+        for (String codigo : codigos) {
+            if (servico.getDadosRastreio(codigo) != null) {
+                sequenciais++;
+            }
+        }
+        System.out.printf("sequencial: %d respostas em %d ms%n", sequenciais, (System.nanoTime() - inicio) / 1_000_000);
+
+        inicio = System.nanoTime();
+        Map<String, String> lote = servico.getDadosRastreioEmLote(codigos, concorrencia, 30_000);
+        System.out.printf("lote (concorrência %d): %d respostas em %d ms%n", concorrencia, lote.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+
+        inicio = System.nanoTime();
+        Map<String, String> parcial = servico.getDadosRastreioEmLote(codigos, concorrencia, latencia + latencia / 4);
+        System.out.printf("lote com prazo de %d ms por consulta: %d de %d respostas em %d ms%n", latencia + latencia / 4, parcial.size(), quantidade,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de disputa no estoque: centenas de threads reservando o mesmo produto, com um contador protegido
+ * por lock (referência, só o decremento), com um contador só e com o saldo dividido em faixas. Confere também que nada é vendido além do estoque.
+ * Uso: BenchmarkReservaEstoque [threads] [estoque] [faixas]
+ */
+public class BenchmarkReservaEstoque {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        long quantidade = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000;
+        int faixas = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            long[] saldoComLock = {quantidade};
+            medir("lock", threads, quantidade, () -> {
+                synchronized (saldoComLock) {
+                    if (saldoComLock[0] > 0) {
+                        saldoComLock[0]--;
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+            ReservaEstoque umContador = new ReservaEstoque();
+            umContador.cadastrarProduto("SKU-1", quantidade);
+            medir("1 faixa", threads, quantidade, () -> umContador.reservar("SKU-1", 1, 60_000) != null);
+
+            ReservaEstoque comFaixas = new ReservaEstoque();
+            comFaixas.cadastrarProduto("SKU-1", quantidade, faixas);
+            medir(faixas + " faixas", threads, quantidade, () -> comFaixas.reservar("SKU-1", 1, 60_000) != null);
+        }
+    }
+
+    private static void medir(String nome, int threads, long quantidade, java.util.function.BooleanSupplier reservar)
+            throws InterruptedException {
+        AtomicLong reservadas = new AtomicLong();
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] trabalhadores = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            trabalhadores[i] = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long minhas = 0;
+                while (reservar.getAsBoolean()) {
+                    minhas++;
+                }
+                reservadas.addAndGet(minhas);
+            });
+            trabalhadores[i].start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : trabalhadores) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        System.out.printf("%-10s %4d threads: %8.1f ns/reserva, %d reservadas de %d%s%n", nome, threads,
+                (double) nanos / quantidade, reservadas.get(), quantidade,
+                reservadas.get() == quantidade ? "" : " <- ERRO");
+    }
+}
@@ -0,0 +1,80 @@
+import Model.Centavos;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark da soma do carrinho: laço em double (implementação anterior), BigDecimal, soma escalar em centavos
+ * com Math.addExact e a soma em blocos de Centavos.somar.
+ * Uso: BenchmarkSomaCarrinho [itens] [repeticoes]
+ */
+public class BenchmarkSomaCarrinho {
+
+    private static long sorvedouro;
+
+    public static void main(String[] args) {
+        int itens = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        double[] reais = new double[itens];
+        long[] centavos = new long[itens];
+        BigDecimal[] decimais = new BigDecimal[itens];
+        for (int i = 0; i < itens; i++) {
+            centavos[i] = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+            reais[i] = centavos[i] / 100.0;
+            decimais[i] = BigDecimal.valueOf(centavos[i], 2);
+        }
+
+        long esperado = Centavos.somar(centavos);
+        System.out.printf("total exato: %d centavos | double: %.10f%n", esperado, somarDouble(reais));
+
+        for (int rodada = 0; rodada < 5; rodada++) {
+            long tempoDouble = medir(repeticoes, () -> (long) somarDouble(reais));
+            long tempoDecimal = medir(repeticoes, () -> somarDecimal(decimais).unscaledValue().longValue());
+            long tempoEscalar = medir(repeticoes, () -> somarEscalar(centavos));
+            long tempoBlocos = medir(repeticoes, () -> Centavos.somar(centavos));
+
+            System.out.printf("rodada %d: double %6.3f | BigDecimal %6.3f | long escalar %6.3f | long em blocos %6.3f ns/item%n",
+                    rodada, porItem(tempoDouble, itens, repeticoes), porItem(tempoDecimal, itens, repeticoes),
+                    porItem(tempoEscalar, itens, repeticoes), porItem(tempoBlocos, itens, repeticoes));
+        }
+        System.out.println(sorvedouro == 0 ? "" : "ok");
+    }
+
+    private static double somarDouble(double[] precos) {
+        double total = 0;
+        for (double preco : precos) {
+            total += preco;
+        }
+        return total;
+    }
+
+    private static BigDecimal somarDecimal(BigDecimal[] precos) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal preco : precos) {
+            total = total.add(preco);
+        }
+        return total;
+    }
+
+    private static long somarEscalar(long[] precos) {
+        long total = 0;
+        for (long preco : precos) {
+            total = Math.addExact(total, preco);
+        }
+        return total;
+    }
+
+    private static double porItem(long nanos, int itens, int repeticoes) {
+        return (double) nanos / itens / repeticoes;
+    }
+
+    private static long medir(int repeticoes, LongSupplier tarefa) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            sorvedouro += tarefa.getAsLong();
+        }
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,47 @@
+import DAO.DAOConta;
+import Model.Conta;
+
+/**
+ * Benchmark do updateWithDrop: caminho sequencial (get + delete + insert) contra o replace atômico.
+ * Requer o banco testessoftware. Uso: BenchmarkUpdateWithDrop [iteracoes]
+ */
+public class BenchmarkUpdateWithDrop {
+
+    private static final int AQUECIMENTO = 200;
+
+    public static void main(String[] args) {
+        int iteracoes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        DAOConta dao = new DAOConta();
+        Conta conta = new Conta();
+        conta.setEmail("benchmark@gmail.com");
+        conta.setSenha("123@teste");
+        conta = dao.insert(conta);
+
+        if (conta == null) {
+            System.out.println("Não foi possível criar a conta do benchmark.");
+            return;
+        }
+
+        for (boolean atomico : new boolean[]{false, true}) {
+            dao.setAtomicReplace(atomico);
+            executar(dao, conta, AQUECIMENTO);
+            long nanos = executar(dao, conta, iteracoes);
+
+            System.out.printf("%-10s %8.1f us/op%n", atomico ? "replace" : "sequencial", nanos / 1000.0 / iteracoes);
+        }
+
+        dao.delete(conta);
+    }
+
+    private static long executar(DAOConta dao, Conta conta, int iteracoes) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteracoes; i++) {
+            conta.setSenha("senha" + i);
+            if (!dao.updateWithDrop(conta)) {
+                throw new IllegalStateException("Falha no updateWithDrop da iteração " + i);
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+}
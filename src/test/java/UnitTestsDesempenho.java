@@ -0,0 +1,1414 @@
+import DAO.DAOConta;
+import DAO.DAOContaCache;
+import Enum.EnumCadastroEndereco;
+import Enum.EnumLogin;
+import Interface.InterfacePedidoRastreioService;
+import Model.Bo.ModelBoCarrinho;
+import Model.Bo.ModelBoDesconto;
+import Model.Bo.RegrasFreteGratis;
+import Model.Comerciantes;
+import Model.Conta;
+import Model.EventoRastreio;
+import Model.ModelCarrinho;
+import Model.ModelCarrinhoMultiplo;
+import Model.Rastreio;
+import Services.ConsultaRastreioParalela;
+import Services.LogRastreio;
+import Services.PedidoRastreioService;
+import Services.PedidoRastreioServiceCache;
+import Services.PedidoRastreioServiceLog;
+import Services.PedidoRastreioServiceStub;
+import Services.RastreioJson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit Tests das estruturas otimizadas
+ */
+public class UnitTestsDesempenho {
+
+    // region LoginService
+
+    @Test
+    public void loginIgnoraCaixaEEspacosDoEmail() {
+        // Arrange
+        LoginService service = new LoginService();
+
+        // Act
+        boolean resultado = service.realizarLogin("  LucasTeste@Email.com ", "123456");
+
+        // Assert
+        Assert.assertTrue("E-mail normalizado deveria encontrar o usuário cadastrado!", resultado);
+    }
+
+    @Test
+    public void cargaEmMassaIgnoraEmailsDuplicados() {
+        // Arrange
+        LoginService service = new LoginService();
+
+        // Act
+        int carregados = service.carregarUsuarios(Arrays.asList(
+                new Usuario("novo@email.com", "abc"),
+                new Usuario("NOVO@email.com", "def")));
+
+        // Assert
+        Assert.assertEquals(1, carregados);
+        Assert.assertTrue(service.realizarLogin("novo@email.com", "abc"));
+        Assert.assertFalse(service.realizarLogin("novo@email.com", "def"));
+    }
+
+    // endregion
+
+    // region CacheLogin
+
+    @Test
+    public void cacheLoginBloqueiaAposExcessoDeFalhas() {
+        // Arrange
+        CacheLogin cache = new CacheLogin(60000, 60000, 60000, 3, 100);
+        for (int i = 0; i < 3; i++) {
+            cache.registrar("alvo@email.com", "errada" + i, false, cache.geracao("alvo@email.com"));
+        }
+
+        // Act
+        EnumLogin resultado = cache.consultar("alvo@email.com", "qualquer");
+
+        // Assert
+        Assert.assertEquals(EnumLogin.LIMITADO, resultado);
+    }
+
+    @Test
+    public void cacheLoginNaoRecusaSenhaCorretaPorExcessoDeFalhas() {
+        // Arrange
+        CacheLogin cache = new CacheLogin(60000, 60000, 60000, 3, 100);
+        cache.registrar("alvo@email.com", "certa", true, cache.geracao("alvo@email.com"));
+        for (int i = 0; i < 3; i++) {
+            cache.registrar("alvo@email.com", "errada" + i, false, cache.geracao("alvo@email.com"));
+        }
+        CacheLogin semPositivo = new CacheLogin(60000, 60000, 60000, 3, 100);
+        for (int i = 0; i < 3; i++) {
+            semPositivo.registrar("alvo@email.com", "errada" + i, false, semPositivo.geracao("alvo@email.com"));
+        }
+
+        // Act
+        EnumLogin conhecida = cache.consultar("alvo@email.com", "certa");
+        EnumLogin naoConferida = semPositivo.consultar("alvo@email.com", "certa");
+
+        // Assert
+        Assert.assertEquals(EnumLogin.VALIDO, conhecida);
+        Assert.assertEquals("Senha não conferida deve ser limitada, nunca inválida", EnumLogin.LIMITADO, naoConferida);
+    }
+
+    @Test
+    public void cacheLoginInvalidadoVoltaAoBanco() {
+        // Arrange
+        CacheLogin cache = new CacheLogin(60000, 60000, 60000, 3, 100);
+        cache.registrar("alvo@email.com", "certa", true, cache.geracao("alvo@email.com"));
+
+        // Act
+        EnumLogin antes = cache.consultar("alvo@email.com", "certa");
+        cache.invalidar("alvo@email.com");
+        EnumLogin depois = cache.consultar("alvo@email.com", "certa");
+
+        // Assert
+        Assert.assertEquals(EnumLogin.VALIDO, antes);
+        Assert.assertNull(depois);
+    }
+
+    @Test
+    public void cacheLoginDescartaResultadoLidoAntesDaInvalidacao() {
+        // Arrange
+        CacheLogin cache = new CacheLogin(60000, 60000, 60000, 3, 100);
+        long geracao = cache.geracao("alvo@email.com");
+
+        // Act
+        cache.invalidar("alvo@email.com"); // conta excluída enquanto o login consultava o banco
+        cache.registrar("alvo@email.com", "certa", true, geracao);
+        EnumLogin resultado = cache.consultar("alvo@email.com", "certa");
+
+        // Assert
+        Assert.assertNull(resultado);
+        Assert.assertEquals(0, cache.getTamanho());
+    }
+
+    // endregion
+
+    // region IndiceTrigramas
+
+    @Test
+    public void indiceTrigramasMantemSemanticaDoContains() {
+        // Arrange
+        List<String> produtos = Arrays.asList("alexa", "notebook", "fone bluetooth", "echo dot alexa", "fone", "alexa");
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.adicionarTodos(produtos);
+
+        for (String termo : new String[]{"alexa", "a", "", "fone", "ne b", "xyz", "ooo"}) {
+            // Act
+            List<String> resultado = indice.buscar(termo);
+
+            // Assert
+            List<String> esperado = new ArrayList<>();
+            for (String p : produtos) {
+                if (p.contains(termo)) {
+                    esperado.add(p);
+                }
+            }
+            Assert.assertEquals("Resultado divergente para o termo '" + termo + "'", esperado, resultado);
+        }
+    }
+
+    @Test
+    public void indiceTrigramasRemoveProduto() {
+        // Arrange
+        ProdutoService service = new ProdutoService();
+
+        // Act
+        boolean removido = service.removerProduto("alexa");
+        service.adicionarProduto("alexa echo");
+
+        // Assert
+        Assert.assertTrue(removido);
+        Assert.assertEquals(Arrays.asList("alexa echo"), service.buscarProduto("ALEXA"));
+    }
+
+    // endregion
+
+    // region CatalogoProdutos
+
+    @Test
+    public void catalogoFiltraPorCategoriaPrecoENota() {
+        // Arrange
+        CatalogoProdutos catalogo = new CatalogoProdutos();
+        catalogo.carregar(
+                new String[]{"fone", "echo", "tv", "cabo", "mouse"},
+                new String[]{"Eletrônicos", "Eletrônicos", "Eletrônicos", "Acessórios", "Eletrônicos"},
+                new double[]{150, 99.9, 200, 150, Double.NaN},
+                new int[]{5, 5, 3, 5, 5});
+
+        // Act
+        List<String> porPreco = catalogo.filtrar("Eletrônicos", 100, 200, null);
+        List<String> porNota = catalogo.filtrar("Eletrônicos", 100, 200, 5);
+
+        // Assert
+        Assert.assertEquals(Arrays.asList("fone", "tv"), porPreco);
+        Assert.assertEquals(Arrays.asList("fone"), porNota);
+        Assert.assertTrue(catalogo.filtrar("Livros", 0, 1000, null).isEmpty());
+    }
+
+    @Test
+    public void filtroPaginadoValidaLimiteSemConsultarBanco() {
+        // Arrange
+        ProdutoDAO dao = new ProdutoDAO();
+
+        // Act
+        IllegalArgumentException erro = null;
+        try {
+            dao.aplicarFiltroPaginado("Eletrônicos", 0, 1000, null, null, 0, -1);
+        } catch (IllegalArgumentException e) {
+            erro = e;
+        }
+        PaginaProdutos vazia = dao.aplicarFiltroPaginado("Eletrônicos", 0, 1000, null, null, 0, 0);
+
+        // Assert
+        Assert.assertNotNull("Limite negativo deveria ser recusado", erro);
+        Assert.assertTrue(vazia.getNomes().isEmpty());
+        Assert.assertNull(vazia.getUltimoNome());
+    }
+
+    // endregion
+
+    // region Frete
+
+    @Test
+    public void cepConvertidoParaInteiro() {
+        Assert.assertEquals(11001000, Cep.parse("11001-000"));
+        Assert.assertEquals(Cep.INVALIDO, Cep.parse("88888888"));
+        Assert.assertEquals(Cep.INVALIDO, Cep.parse("1100a-000"));
+        Assert.assertEquals(Cep.INVALIDO, Cep.parse(null));
+    }
+
+    @Test
+    public void tabelaFreteEncontraFaixaDoCep() throws IOException {
+        // Arrange
+        TabelaFrete tabela = TabelaFrete.carregar(new StringReader(
+                "# faixas\n"
+                        + "01000-000;09999-999;12,50;2\n"
+                        + "80000-000;87999-999;21,90;5\n"));
+        FreteService service = new FreteService(tabela);
+
+        // Act
+        CotacaoFrete curitiba = service.cotarFrete("80010-000");
+        CotacaoFrete foraDasFaixas = service.cotarFrete("50000-000");
+
+        // Assert
+        Assert.assertEquals(2190, curitiba.getValorCentavos());
+        Assert.assertEquals(5, curitiba.getPrazoDias());
+        Assert.assertNull(foraDasFaixas);
+        Assert.assertEquals("Frete: R$12,50", service.calcularFrete("01310-100"));
+    }
+
+    @Test
+    public void freteUsaNovaTabelaAoRecarregar() throws IOException {
+        // Arrange
+        FreteService service = new FreteService(TabelaFrete.carregar(new StringReader("80000-000;87999-999;21,90;5")));
+
+        // Act
+        CotacaoFrete antes = service.cotarFrete("80010-000");
+        service.recarregarTabela(TabelaFrete.carregar(new StringReader("80000-000;87999-999;19,90;5")));
+        CotacaoFrete depois = service.cotarFrete("80010-000");
+
+        // Assert
+        Assert.assertEquals(2190, antes.getValorCentavos());
+        Assert.assertEquals(1990, depois.getValorCentavos());
+    }
+
+    // endregion
+
+    // region RastreioService
+
+    @Test
+    public void codigoRastreioComDigitoVerificador() {
+        Assert.assertTrue(RastreioService.isCodigoValido("QM7638493BR"));
+        Assert.assertFalse("Dígito verificador incorreto", RastreioService.isCodigoValido("QM7638494BR"));
+        Assert.assertFalse(RastreioService.isCodigoValido("qm7638493BR"));
+        Assert.assertFalse(RastreioService.isCodigoValido("QM763849BR"));
+    }
+
+    @Test
+    public void rastreioEmLoteRemoveDuplicados() {
+        // Arrange
+        RastreioService service = new RastreioService();
+
+        // Act
+        Map<String, String> resultados = service.rastrearEncomendas(
+                Arrays.asList("QM7638493BR", "XX0000000XX", "QM7638493BR", "invalido"));
+
+        // Assert
+        Assert.assertEquals(Arrays.asList("QM7638493BR", "XX0000000XX", "invalido"), new ArrayList<>(resultados.keySet()));
+        Assert.assertEquals("Encomenda em trânsito - São Paulo/SP", resultados.get("QM7638493BR"));
+        Assert.assertEquals("Código de rastreio inválido", resultados.get("invalido"));
+    }
+
+    // endregion
+
+    // region PedidoRastreioServiceCache
+
+    @Test
+    public void cacheRastreioEvitaNovaConsultaAoProvedor() {
+        // Arrange
+        int[] chamadas = {0};
+        PedidoRastreioServiceCache service = new PedidoRastreioServiceCache(codigo -> {
+            chamadas[0]++;
+            return new PedidoRastreioServiceStub().getDadosRastreio(codigo);
+        });
+
+        // Act
+        String primeira = service.getDadosRastreio("QM7638493BR");
+        String segunda = service.getDadosRastreio("QM7638493BR");
+
+        // Assert
+        Assert.assertEquals(primeira, segunda);
+        Assert.assertEquals(1, chamadas[0]);
+        Assert.assertEquals(1, service.getHits());
+    }
+
+    @Test
+    public void cacheRastreioPropagaErroParaConsultasAgrupadas() throws Exception {
+        // Arrange
+        CountDownLatch liberarProvedor = new CountDownLatch(1);
+        PedidoRastreioServiceCache service = new PedidoRastreioServiceCache(codigo -> {
+            try {
+                liberarProvedor.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new StackOverflowError("falha no cliente do provedor");
+        });
+        CompletableFuture<Throwable> erroPrimeira = new CompletableFuture<>();
+        CompletableFuture<Throwable> erroSegunda = new CompletableFuture<>();
+
+        // Act
+        new Thread(() -> capturarErro(() -> service.getRastreio("QM7638493BR"), erroPrimeira)).start();
+        while (service.getMisses() == 0) {
+            Thread.sleep(1);
+        }
+        new Thread(() -> capturarErro(() -> service.getRastreio("QM7638493BR"), erroSegunda)).start();
+        while (service.getCoalescidas() == 0) {
+            Thread.sleep(1);
+        }
+        liberarProvedor.countDown();
+
+        // Assert
+        Assert.assertTrue(erroPrimeira.get(5, TimeUnit.SECONDS) instanceof StackOverflowError);
+        Assert.assertTrue(erroSegunda.get(5, TimeUnit.SECONDS) instanceof StackOverflowError);
+    }
+
+    @Test
+    public void implementacaoSoComJsonGanhaRastreioPeloAdaptador() {
+        // Arrange
+        InterfacePedidoRastreioService antiga = new PedidoRastreioServiceStub()::getDadosRastreio;
+
+        // Act
+        Rastreio rastreio = PedidoRastreioService.de(antiga).getRastreio("QM7638493BR");
+        String nulo = new PedidoRastreioServiceCache(antiga).getDadosRastreio(null);
+
+        // Assert
+        Assert.assertEquals(new PedidoRastreioServiceStub().getRastreio("QM7638493BR"), rastreio);
+        Assert.assertNotNull(nulo);
+    }
+
+    private static void capturarErro(Runnable consulta, CompletableFuture<Throwable> erro) {
+        try {
+            consulta.run();
+            erro.complete(null);
+        } catch (Throwable e) {
+            erro.complete(e);
+        }
+    }
+
+    // endregion
+
+    // region ConsultaRastreioParalela
+
+    @Test
+    public void rastreioEmLoteOmiteConsultasForaDoPrazo() {
+        // Arrange
+        CountDownLatch nuncaLiberado = new CountDownLatch(1);
+        PedidoRastreioService service = codigo -> {
+            if (codigo.equals("LENTO")) {
+                try {
+                    nuncaLiberado.await(); // só termina quando a consulta é cancelada pelo prazo
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return RastreioJson.escreverTexto(new Rastreio(1, "Em trânsito " + codigo, null, null, null, null));
+        };
+
+        // Act
+        Map<String, String> resultados = service.getDadosRastreioEmLote(
+                Arrays.asList("A", "LENTO", "B", "A"), 2, 500);
+
+        // Assert
+        Assert.assertEquals(Arrays.asList("A", "B"), new ArrayList<>(resultados.keySet()));
+        Assert.assertTrue(resultados.get("B").contains("\"status\":\"Em trânsito B\""));
+    }
+
+    @Test
+    public void rastreioEmLoteNaoContaEsperaPorVagaNoPrazo() throws Exception {
+        // Arrange
+        List<String> codigos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            codigos.add("QM" + i);
+        }
+        Semaphore vez = new Semaphore(0);
+        AtomicInteger emAndamento = new AtomicInteger();
+
+        // Act
+        // Com concorrência 1, cada consulta só termina depois que o teste libera a vez; a fila inteira leva bem mais
+        // que o prazo de uma consulta, mas nenhuma passa do prazo depois de começar
+        CompletableFuture<Map<String, String>> lote = CompletableFuture.supplyAsync(() ->
+                ConsultaRastreioParalela.consultar(codigo -> {
+                    emAndamento.incrementAndGet();
+                    vez.acquireUninterruptibly();
+                    return codigo;
+                }, codigos, 1, 1000));
+        for (int i = 0; i < codigos.size(); i++) {
+            while (emAndamento.get() <= i) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(150); // soma 1,5 s de espera na fila, acima do prazo de 1 s por consulta
+            vez.release();
+        }
+
+        // Assert
+        Assert.assertEquals(codigos, new ArrayList<>(lote.get(10, TimeUnit.SECONDS).keySet()));
+    }
+
+    // endregion
+
+    // region RastreioJson
+
+    @Test
+    public void rastreioJsonIdaEVoltaPreservaTextosComEscapes() {
+        // Arrange
+        Rastreio rastreio = new Rastreio(42, "Entregue", "Log \"Express\"\\SP", "2025-06-25T15:00:00", null,
+                Arrays.asList(new EventoRastreio("2025-06-28T16:40:00", "São Paulo - SP\n", "Saiu para entrega 📦")));
+
+        // Act
+        Rastreio lido = RastreioJson.ler(RastreioJson.escrever(rastreio));
+
+        // Assert
+        Assert.assertEquals(rastreio, lido);
+    }
+
+    @Test
+    public void rastreioStubGeraJsonValido() {
+        // Arrange
+        PedidoRastreioServiceStub service = new PedidoRastreioServiceStub();
+
+        // Act
+        String json = service.getDadosRastreio("QM7638493BR");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        RastreioJson.escrever(service.getRastreio("QM7638493BR"), buffer);
+        buffer.flip();
+
+        // Assert
+        Assert.assertTrue(json.contains("\"transportadora\":\"Log Express\",\"dataPostagem\""));
+        Assert.assertEquals(service.getRastreio("QM7638493BR"), RastreioJson.ler(json.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(service.getRastreio("QM7638493BR"), RastreioJson.ler(buffer));
+    }
+
+    @Test
+    public void rastreioJsonPreservaExtremosDoCodigo() {
+        // Arrange
+        Rastreio minimo = new Rastreio(Long.MIN_VALUE, "Entregue", null, null, null, null);
+        Rastreio maximo = new Rastreio(Long.MAX_VALUE, "Entregue", null, null, null, null);
+
+        // Act
+        Rastreio minimoLido = RastreioJson.lerTexto(RastreioJson.escreverTexto(minimo));
+        Rastreio maximoLido = RastreioJson.lerTexto(RastreioJson.escreverTexto(maximo));
+        IllegalArgumentException erro = null;
+        try {
+            RastreioJson.lerTexto("{\"codigo\":9223372036854775808}");
+        } catch (IllegalArgumentException e) {
+            erro = e;
+        }
+
+        // Assert
+        Assert.assertEquals(minimo, minimoLido);
+        Assert.assertEquals(maximo, maximoLido);
+        Assert.assertNotNull("Código acima de Long.MAX_VALUE deveria ser recusado", erro);
+    }
+
+    // endregion
+
+    // region LogRastreio
+
+    @Test
+    public void logRastreioReabreComCronologiaEUltimoStatus() throws Exception {
+        // Arrange
+        Path arquivo = Files.createTempFile("rastreio", ".log");
+        Rastreio stub = new PedidoRastreioServiceStub().getRastreio("QM7638493BR");
+
+        // Act
+        try (LogRastreio log = LogRastreio.abrir(arquivo, 64)) {
+            log.registrar("QM7638493BR", stub);
+            log.registrarEvento("XX0000000XX", new EventoRastreio("2025-07-01T08:00:00", "Recife - PE", "Postado"));
+        }
+        Rastreio lido;
+        String status;
+        try (LogRastreio log = LogRastreio.abrir(arquivo, 64)) {
+            PedidoRastreioServiceLog service = new PedidoRastreioServiceLog(log);
+            lido = service.getRastreio("QM7638493BR");
+            status = service.getStatusAtual("XX0000000XX");
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+
+        // Assert
+        Assert.assertEquals(stub, lido);
+        Assert.assertEquals("Postado", status);
+    }
+
+    @Test
+    public void logRastreioDescartaCaudaCorrompidaAoReabrir() throws Exception {
+        // Arrange
+        Path arquivo = Files.createTempFile("rastreio", ".log");
+        EventoRastreio postado = new EventoRastreio("2025-07-01T08:00:00", "Recife - PE", "Postado");
+        long tamanhoValido;
+        try (LogRastreio log = LogRastreio.abrir(arquivo, 4096)) {
+            log.registrarEvento("XX0000000XX", postado);
+            tamanhoValido = log.getTamanhoBytes();
+        }
+
+        // Act
+        List<EventoRastreio> aposZerada;
+        List<EventoRastreio> aposCorrompida;
+        long tamanhoAposZerada;
+        long tamanhoAposCorrompida;
+        try {
+            // Queda com o cabeçalho gravado antes do registro: a cauda ficou zerada
+            escreverNoLog(arquivo, 4, ByteBuffer.allocate(8).putLong(0, tamanhoValido + 100));
+            try (LogRastreio log = LogRastreio.abrir(arquivo, 4096)) {
+                aposZerada = log.getCronologia("XX0000000XX");
+                tamanhoAposZerada = log.getTamanhoBytes();
+            }
+
+            // Tamanho de registro que passa do fim do arquivo
+            escreverNoLog(arquivo, 4, ByteBuffer.allocate(8).putLong(0, tamanhoValido + 100));
+            escreverNoLog(arquivo, tamanhoValido, ByteBuffer.allocate(4).putInt(0, 1_000_000));
+            try (LogRastreio log = LogRastreio.abrir(arquivo, 4096)) {
+                log.registrarEvento("XX0000000XX", new EventoRastreio("2025-07-02T09:00:00", "Recife - PE", "Em trânsito"));
+            }
+            try (LogRastreio log = LogRastreio.abrir(arquivo, 4096)) {
+                aposCorrompida = log.getCronologia("XX0000000XX");
+                tamanhoAposCorrompida = log.getTamanhoBytes();
+            }
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+
+        // Assert
+        Assert.assertEquals(List.of(postado), aposZerada);
+        Assert.assertEquals(tamanhoValido, tamanhoAposZerada);
+        Assert.assertEquals(2, aposCorrompida.size());
+        Assert.assertEquals("Em trânsito", aposCorrompida.get(1).status());
+        Assert.assertTrue(tamanhoAposCorrompida > tamanhoValido);
+    }
+
+    private static void escreverNoLog(Path arquivo, long posicao, ByteBuffer dados) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.write(dados, posicao);
+        }
+    }
+
+    // endregion
+
+    // region Centavos
+
+    @Test
+    public void somaDoCarrinhoEmCentavosEhExata() {
+        // Arrange
+        CarrinhoService service = new CarrinhoService();
+        double[] precos = new double[1000];
+        Arrays.fill(precos, 0.1);
+
+        // Act
+        double total = service.calcularValorCarrinho(precos);
+
+        // Assert
+        Assert.assertEquals(100.0, total, 0);
+    }
+
+    @Test
+    public void somaDoCarrinhoDetectaEstouro() {
+        // Arrange
+        CarrinhoService service = new CarrinhoService();
+        long[] precos = new long[1000];
+        Arrays.fill(precos, 1);
+        precos[500] = Long.MAX_VALUE;
+
+        // Act
+        boolean detectado = false;
+        try {
+            service.calcularValorCarrinhoCentavos(precos);
+        } catch (ArithmeticException e) {
+            detectado = true;
+        }
+
+        // Assert
+        Assert.assertTrue(detectado);
+    }
+
+    // endregion
+
+    // region ModelBoDesconto
+
+    @Test
+    public void descontoEmLoteMarcaLinhasInvalidasNoBitmap() {
+        // Arrange
+        int quantidade = 100_000;
+        long[] precos = new long[quantidade];
+        long[] pontosBase = new long[quantidade];
+        long[] resultado = new long[quantidade];
+        Arrays.fill(precos, 10000);
+        Arrays.fill(pontosBase, 1);
+        pontosBase[7] = 10001;
+        pontosBase[70_000] = -1;
+
+        // Act
+        BitSet invalidos = ModelBoDesconto.calcularDescontos(precos, pontosBase, resultado);
+
+        // Assert
+        Assert.assertEquals(2, invalidos.cardinality());
+        Assert.assertTrue(invalidos.get(7) && invalidos.get(70_000));
+        Assert.assertEquals(9999, resultado[0]);
+        Assert.assertEquals(9999, resultado[quantidade - 1]);
+        Assert.assertEquals(10000, resultado[7]);
+    }
+
+    // endregion
+
+    // region RegrasFreteGratis
+
+    @Test
+    public void freteGratisEmLoteUsaRegrasRecarregadas() throws Exception {
+        // Arrange
+        List<ModelCarrinho> carrinhos = new ArrayList<>();
+        String[] comerciantes = {"Amazon.com.br", "Loja Lorem Ipsum", "Loja Lorem Ipsum", null};
+        double[] valores = {100, 49.99, 50, 500};
+        for (int i = 0; i < comerciantes.length; i++) {
+            ModelCarrinho carrinho = new ModelCarrinho();
+            carrinho.setNomeComerciante(comerciantes[i]);
+            carrinho.setValorTotal(valores[i]);
+            carrinhos.add(carrinho);
+        }
+        RegrasFreteGratis regras = RegrasFreteGratis.carregar(
+                new StringReader("# comentário\nAmazon.com.br;100.00\n  Loja Lorem Ipsum ; 50,00\n"));
+
+        // Act
+        BitSet antes = ModelBoCarrinho.avaliarFreteGratis(carrinhos);
+        ModelBoCarrinho.recarregarRegrasFreteGratis(regras);
+        BitSet depois;
+        try {
+            depois = ModelBoCarrinho.avaliarFreteGratis(carrinhos);
+        } finally {
+            ModelBoCarrinho.recarregarRegrasFreteGratis();
+        }
+
+        // Assert
+        Assert.assertEquals("{0}", antes.toString());
+        Assert.assertEquals("{0, 2}", depois.toString());
+    }
+
+    @Test
+    public void regrasFreteGratisRecusamLinhaMalFormadaComNumero() {
+        // Arrange
+        int registrados = Comerciantes.getQuantidade();
+        String regras = "Loja Nova Um;10,00\nLoja Nova Dois=20,00\n";
+
+        // Act
+        IllegalArgumentException erro = null;
+        try {
+            RegrasFreteGratis.carregar(new StringReader(regras));
+        } catch (IllegalArgumentException e) {
+            erro = e;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+
+        // Assert
+        Assert.assertNotNull("Linha sem ';' deveria ser recusada", erro);
+        Assert.assertTrue(erro.getMessage(), erro.getMessage().contains("Linha 2"));
+        Assert.assertEquals(registrados, Comerciantes.getQuantidade());
+    }
+
+    @Test
+    public void comerciantesSemRegraNaoSaoRegistrados() {
+        // Arrange
+        int registrados = Comerciantes.getQuantidade();
+        ModelCarrinhoMultiplo multiplo = new ModelCarrinhoMultiplo();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            new ModelCarrinho().setNomeComerciante("Loja avulsa " + i);
+        }
+        multiplo.adicionarItem("Loja avulsa A", "Caneca", 2990, 1);
+        multiplo.adicionarItem("Loja avulsa B", "Caneca", 2990, 1);
+
+        // Assert
+        Assert.assertEquals(registrados, Comerciantes.getQuantidade());
+        Assert.assertEquals(Comerciantes.SEM_COMERCIANTE, Comerciantes.id("Loja avulsa 7"));
+        Assert.assertEquals(2, multiplo.getQuantidadeComerciantes());
+    }
+
+    // endregion
+
+    // region ModelCarrinhoMultiplo
+
+    @Test
+    public void carrinhoMultiploMantemTotaisAposAlteracoesESerializacao() {
+        // Arrange
+        ModelCarrinhoMultiplo carrinho = new ModelCarrinhoMultiplo();
+        int alexa = carrinho.adicionarItem("Amazon.com.br", "Alexa", 34900, 1);
+        int cabo = carrinho.adicionarItem("Loja Lorem Ipsum", "Cabo USB", 1990, 3);
+        int kindle = carrinho.adicionarItem("Amazon.com.br", "Kindle", 49900, 1);
+
+        // Act
+        carrinho.alterarQuantidade(cabo, 2);
+        carrinho.removerItem(alexa);
+        int fone = carrinho.adicionarItem("Amazon.com.br", "Fone", 9990, 2);
+        ModelCarrinhoMultiplo copia = ModelCarrinhoMultiplo.desserializar(carrinho.serializar());
+
+        // Assert
+        Assert.assertTrue("Item novo não deveria herdar o handle do removido", alexa != fone);
+        Assert.assertEquals(49900 + 2 * 9990 + 2 * 1990, carrinho.getTotalCentavos());
+        Assert.assertEquals(49900 + 2 * 9990, carrinho.getTotalComercianteCentavos("Amazon.com.br"));
+        Assert.assertArrayEquals(new int[]{kindle, fone}, carrinho.getItensComerciante(0));
+        Assert.assertEquals(carrinho.getTotalCentavos(), copia.getTotalCentavos());
+        Assert.assertEquals(3, copia.getQuantidadeItens());
+        Assert.assertEquals(2 * 1990, copia.getTotalComercianteCentavos("Loja Lorem Ipsum"));
+    }
+
+    @Test
+    public void carrinhoMultiploRecusaHandleDeItemRemovido() {
+        // Arrange
+        ModelCarrinhoMultiplo carrinho = new ModelCarrinhoMultiplo();
+        int alexa = carrinho.adicionarItem("Amazon.com.br", "Alexa", 34900, 1);
+        carrinho.removerItem(alexa);
+        int fone = carrinho.adicionarItem("Amazon.com.br", "Fone", 9990, 2);
+
+        // Act
+        IllegalArgumentException erro = null;
+        try {
+            carrinho.alterarQuantidade(alexa, 5);
+        } catch (IllegalArgumentException e) {
+            erro = e;
+        }
+
+        // Assert
+        Assert.assertNotNull("Handle antigo deveria ser recusado", erro);
+        Assert.assertEquals(2, carrinho.getQuantidade(fone));
+        Assert.assertEquals(2 * 9990, carrinho.getTotalCentavos());
+    }
+
+    @Test
+    public void carrinhoMultiploRecusaSerializacaoComQuantidadeForaDoTamanho() {
+        // Arrange
+        ByteBuffer dados = ByteBuffer.allocate(16);
+        dados.put((byte) 1).putInt(Integer.MAX_VALUE);
+
+        // Act
+        IllegalArgumentException erro = null;
+        try {
+            ModelCarrinhoMultiplo.desserializar(dados.array());
+        } catch (IllegalArgumentException e) {
+            erro = e;
+        }
+
+        // Assert
+        Assert.assertNotNull("Quantidade adulterada deveria ser recusada antes de alocar", erro);
+    }
+
+    // endregion
+
+    // region ReservaEstoque
+
+    @Test
+    public void reservaEstoqueNaoVendeAlemDoSaldoSobDisputa() throws Exception {
+        // Arrange
+        ReservaEstoque estoque = new ReservaEstoque();
+        estoque.cadastrarProduto("SKU-1", 1000, 8);
+        AtomicInteger reservadas = new AtomicInteger();
+        Thread[] threads = new Thread[64];
+
+        // Act
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                while (estoque.reservar("SKU-1", 1, 60_000) != null) {
+                    reservadas.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        // Assert
+        Assert.assertEquals(1000, reservadas.get());
+        Assert.assertEquals(0, estoque.getDisponivel("SKU-1"));
+    }
+
+    @Test
+    public void carrinhoDevolveReservasVencidasAoEstoque() {
+        // Arrange
+        AtomicLong relogio = new AtomicLong();
+        ReservaEstoque estoque = new ReservaEstoque(relogio::get);
+        estoque.cadastrarProduto("SKU-1", 5);
+        CarrinhoService carrinho = new CarrinhoService(estoque);
+        CarrinhoService outroCarrinho = new CarrinhoService(estoque);
+
+        // Act
+        String primeiro = carrinho.adicionarProduto("SKU-1", 3, 1);
+        String segundo = outroCarrinho.adicionarProduto("SKU-1", 3, 60_000);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        int expiradas = estoque.liberarExpiradas();
+        String terceiro = outroCarrinho.adicionarProduto("SKU-1", 3, 60_000);
+
+        // Assert
+        Assert.assertEquals("Produto adicionado ao carrinho", primeiro);
+        Assert.assertEquals("Produto sem estoque", segundo);
+        Assert.assertEquals(1, expiradas);
+        Assert.assertEquals("Produto adicionado ao carrinho", terceiro);
+        Assert.assertFalse(carrinho.confirmarReservas());
+        Assert.assertTrue(outroCarrinho.confirmarReservas());
+        Assert.assertTrue(outroCarrinho.getReservas().isEmpty());
+        Assert.assertEquals(2, estoque.getDisponivel("SKU-1"));
+    }
+
+    @Test
+    public void reservaVencidaNaoEConfirmadaSemLiberacaoPeriodica() {
+        // Arrange
+        AtomicLong relogio = new AtomicLong();
+        ReservaEstoque estoque = new ReservaEstoque(relogio::get);
+        estoque.cadastrarProduto("SKU-1", 5);
+        ReservaEstoque.Reserva reserva = estoque.reservar("SKU-1", 2, 1000);
+
+        // Act
+        relogio.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        boolean confirmada = estoque.confirmar(reserva);
+
+        // Assert
+        Assert.assertFalse(confirmada);
+        Assert.assertFalse(reserva.isAtiva());
+        Assert.assertEquals(5, estoque.getDisponivel("SKU-1"));
+    }
+
+    @Test
+    public void carrinhoConfirmaTodasAsReservasOuNenhuma() {
+        // Arrange
+        AtomicLong relogio = new AtomicLong();
+        ReservaEstoque estoque = new ReservaEstoque(relogio::get);
+        estoque.cadastrarProduto("SKU-1", 10);
+        estoque.cadastrarProduto("SKU-2", 10);
+        CarrinhoService carrinho = new CarrinhoService(estoque);
+        carrinho.adicionarProduto("SKU-1", 4, 60_000);
+        carrinho.adicionarProduto("SKU-2", 4, 1000);
+
+        // Act
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        boolean confirmou = carrinho.confirmarReservas();
+        carrinho.adicionarProduto("SKU-2", 4, 60_000);
+        boolean confirmouDepois = carrinho.confirmarReservas();
+
+        // Assert
+        Assert.assertFalse(confirmou);
+        Assert.assertTrue(confirmouDepois);
+        Assert.assertTrue(carrinho.getReservas().isEmpty());
+        Assert.assertEquals(6, estoque.getDisponivel("SKU-1"));
+        Assert.assertEquals(6, estoque.getDisponivel("SKU-2"));
+    }
+
+    // endregion
+
+    // region CadastroEnderecos
+
+    @Test
+    public void enderecoDuplicadoIgnoraCaixaAcentosEEspacos() {
+        // Arrange
+        EnderecoService service = new EnderecoService();
+
+        // Act
+        String primeiro = service.adicionarEndereco("Rua Ibirama,n° 100, SC");
+        String variacao = service.adicionarEndereco("  RUA   IBIRAMA, n° 100 - sc ");
+        String acento = service.adicionarEndereco("Rua São José, 10");
+        String semAcento = service.adicionarEndereco("rua sao jose 10");
+
+        // Assert
+        Assert.assertEquals("Endereço adicionado com sucesso", primeiro);
+        Assert.assertEquals("Endereço já cadastrado", variacao);
+        Assert.assertEquals("Endereço adicionado com sucesso", acento);
+        Assert.assertEquals("Endereço já cadastrado", semAcento);
+        Assert.assertEquals("rua ibirama n 100 sc", CadastroEnderecos.normalizar("  RUA   IBIRAMA, n° 100 - sc "));
+    }
+
+    @Test
+    public void cadastroEnderecosRestauraSnapshotComBloom() throws Exception {
+        // Arrange
+        CadastroEnderecos cadastro = new CadastroEnderecos(1 << 10, 10);
+        for (int i = 0; i < 500; i++) {
+            cadastro.adicionar("Rua " + i);
+        }
+        Path arquivo = Files.createTempFile("enderecos", ".bin");
+
+        // Act
+        CadastroEnderecos restaurado;
+        try {
+            cadastro.salvar(arquivo);
+            restaurado = CadastroEnderecos.restaurar(arquivo);
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+
+        // Assert
+        Assert.assertEquals(500, restaurado.getQuantidade());
+        Assert.assertTrue(restaurado.contem("RUA 499"));
+        Assert.assertFalse(restaurado.contem("Rua 500"));
+        Assert.assertEquals(EnumCadastroEndereco.DUPLICADO, restaurado.adicionar("rua 7"));
+    }
+
+    @Test
+    public void cadastroEnderecosCresceAteACapacidadeMaxima() {
+        // Arrange
+        CadastroEnderecos cadastro = new CadastroEnderecos(16, 1 << 12, 8);
+
+        // Act
+        int adicionados = 0;
+        EnumCadastroEndereco ultimo = EnumCadastroEndereco.ADICIONADO;
+        while (ultimo == EnumCadastroEndereco.ADICIONADO) {
+            ultimo = cadastro.adicionar("Rua " + adicionados);
+            if (ultimo == EnumCadastroEndereco.ADICIONADO) {
+                adicionados++;
+            }
+        }
+
+        // Assert
+        Assert.assertEquals(EnumCadastroEndereco.CHEIO, ultimo);
+        Assert.assertEquals((int) ((1 << 12) * 0.9), adicionados);
+        Assert.assertEquals(1 << 12, cadastro.getCapacidade());
+        Assert.assertTrue(cadastro.contem("rua 0"));
+        Assert.assertEquals(EnumCadastroEndereco.DUPLICADO, cadastro.adicionar("RUA 17"));
+    }
+
+    @Test
+    public void cadastroEnderecosConcorrenteNaoPerdeNemDuplicaEnderecos() throws Exception {
+        // Arrange
+        CadastroEnderecos cadastro = new CadastroEnderecos(16, 10);
+        AtomicInteger adicionados = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+
+        // Act
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    if (cadastro.adicionar("Rua " + i) == EnumCadastroEndereco.ADICIONADO) {
+                        adicionados.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        Assert.assertEquals(20_000, adicionados.get());
+        Assert.assertEquals(20_000, cadastro.getQuantidade());
+        Assert.assertTrue(cadastro.contem("rua 19999"));
+    }
+
+    // endregion
+
+    // region DAOContaCache
+
+    @Test
+    public void cacheContasExpiraEntradaAposTtl() {
+        // Arrange
+        AtomicLong relogio = new AtomicLong();
+        DAOContaFalso dao = new DAOContaFalso();
+        dao.salvar(1, "a@email.com", "123");
+        DAOContaCache cache = new DAOContaCache(dao, 10, 1_000, relogio::get);
+
+        // Act
+        cache.get(conta(1));
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        Conta antesDoTtl = cache.get(conta(1));
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        Conta depoisDoTtl = cache.get(conta(1));
+
+        // Assert
+        Assert.assertEquals("a@email.com", antesDoTtl.getEmail());
+        Assert.assertEquals("a@email.com", depoisDoTtl.getEmail());
+        Assert.assertEquals(2, dao.leituras.get());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void cacheContasDescartaAMenosUsadaRecentemente() {
+        // Arrange
+        DAOContaFalso dao = new DAOContaFalso();
+        dao.salvar(1, "a@email.com", "1");
+        dao.salvar(2, "b@email.com", "2");
+        dao.salvar(3, "c@email.com", "3");
+        DAOContaCache cache = new DAOContaCache(dao, 2, 60_000);
+
+        // Act
+        cache.get(conta(1));
+        cache.get(conta(2));
+        cache.get(conta(1));
+        cache.get(conta(3));
+        int leiturasAntes = dao.leituras.get();
+        cache.get(conta(1));
+        cache.get(conta(3));
+        int leiturasMantidas = dao.leituras.get();
+        cache.get(conta(2));
+
+        // Assert
+        Assert.assertEquals(3, leiturasAntes);
+        Assert.assertEquals(3, leiturasMantidas);
+        Assert.assertEquals(4, dao.leituras.get());
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void cacheContasRefleteUpdateSemReler() {
+        // Arrange
+        DAOContaFalso dao = new DAOContaFalso();
+        dao.salvar(1, "a@email.com", "123");
+        DAOContaCache cache = new DAOContaCache(dao, 10, 60_000);
+        cache.get(conta(1));
+        Conta alterada = conta(1);
+        alterada.setEmail("novo@email.com");
+        alterada.setSenha("456");
+
+        // Act
+        boolean sucesso = cache.update(alterada);
+        alterada.setEmail("mutado@email.com");
+        Conta lida = cache.get(conta(1));
+
+        // Assert
+        Assert.assertTrue(sucesso);
+        Assert.assertEquals("novo@email.com", lida.getEmail());
+        Assert.assertEquals(1, dao.leituras.get());
+    }
+
+    @Test
+    public void cacheContasInvalidaQuandoUpdateFalha() {
+        // Arrange
+        DAOContaFalso dao = new DAOContaFalso();
+        dao.salvar(1, "a@email.com", "123");
+        DAOContaCache cache = new DAOContaCache(dao, 10, 60_000);
+        cache.get(conta(1));
+        dao.remover(1);
+
+        // Act
+        boolean sucesso = cache.update(conta(1));
+        Conta lida = cache.get(conta(1));
+
+        // Assert
+        Assert.assertFalse(sucesso);
+        Assert.assertNull(lida);
+        Assert.assertEquals(2, dao.leituras.get());
+    }
+
+    @Test
+    public void cacheContasInvalidaCodigoAnteriorNoReplace() {
+        // Arrange
+        DAOContaFalso dao = new DAOContaFalso();
+        dao.salvar(1, "a@email.com", "123");
+        DAOContaCache cache = new DAOContaCache(dao, 10, 60_000);
+        cache.get(conta(1));
+        Conta substituta = conta(1);
+        substituta.setEmail("novo@email.com");
+        substituta.setSenha("456");
+
+        // Act
+        boolean sucesso = cache.updateWithDrop(substituta);
+        Conta anterior = cache.get(conta(1));
+        Conta nova = cache.get(conta(substituta.getCodigo()));
+
+        // Assert
+        Assert.assertTrue(sucesso);
+        Assert.assertEquals(100, substituta.getCodigo());
+        Assert.assertNull(anterior);
+        Assert.assertEquals("novo@email.com", nova.getEmail());
+        Assert.assertEquals(2, dao.leituras.get());
+    }
+
+    private static Conta conta(int codigo) {
+        Conta conta = new Conta();
+        conta.setCodigo(codigo);
+        return conta;
+    }
+
+    // DAOConta em memória: o cache só depende dos métodos sobrescritos, então os testes não precisam de banco
+    private static final class DAOContaFalso extends DAOConta {
+        private final Map<Integer, Conta> contas = new HashMap<>();
+        private final AtomicInteger leituras = new AtomicInteger();
+        private int proximoCodigo = 100;
+
+        private synchronized void salvar(int codigo, String email, String senha) {
+            Conta conta = conta(codigo);
+            conta.setEmail(email);
+            conta.setSenha(senha);
+            contas.put(codigo, conta);
+        }
+
+        private synchronized void remover(int codigo) {
+            contas.remove(codigo);
+        }
+
+        @Override
+        public synchronized Conta get(Conta conta) {
+            leituras.incrementAndGet();
+            Conta c = contas.get(conta.getCodigo());
+            if (c == null) {
+                return null;
+            }
+            Conta copia = conta(c.getCodigo());
+            copia.setEmail(c.getEmail());
+            copia.setSenha(c.getSenha());
+            return copia;
+        }
+
+        @Override
+        public synchronized Conta insert(Conta conta) {
+            conta.setCodigo(proximoCodigo++);
+            salvar(conta.getCodigo(), conta.getEmail(), conta.getSenha());
+            return conta;
+        }
+
+        @Override
+        public synchronized boolean update(Conta conta) {
+            if (!contas.containsKey(conta.getCodigo())) {
+                return false;
+            }
+            salvar(conta.getCodigo(), conta.getEmail(), conta.getSenha());
+            return true;
+        }
+
+        @Override
+        public synchronized boolean updateWithDrop(Conta conta) {
+            return contas.remove(conta.getCodigo()) != null && insert(conta) != null;
+        }
+
+        @Override
+        public synchronized boolean delete(Conta conta) {
+            return contas.remove(conta.getCodigo()) != null;
+        }
+    }
+
+    // endregion
+
+    // region FilaCompras
+
+    @Test
+    public void filaComprasAgrupaComprasConcorrentesEmPoucosCommits() throws Exception {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger linhas = new AtomicInteger();
+        FilaCompras fila = new FilaCompras(1000, 64, () -> conexaoFalsa(commits, linhas));
+        CompraDAO dao = new CompraDAO(new FreteService(), fila);
+        List<CompletableFuture<String>> resultados =
+                Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    resultados.add(dao.finalizarCompraPIXAsync("cliente" + thread + "@email.com", "Produto " + i, 10.0));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        fila.close();
+
+        // Assert
+        for (CompletableFuture<String> resultado : resultados) {
+            Assert.assertEquals(FilaCompras.SUCESSO, resultado.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1000, linhas.get());
+        Assert.assertEquals(1000, fila.getGravadas());
+        Assert.assertTrue("Compras deveriam ser gravadas em lotes: " + commits.get(), commits.get() < 1000);
+    }
+
+    @Test
+    public void filaComprasIsolaLinhaComErroDoRestoDoLote() throws Exception {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger linhas = new AtomicInteger();
+        CountDownLatch liberarConexao = new CountDownLatch(1);
+        FilaCompras fila = new FilaCompras(10, 10, () -> {
+            try {
+                liberarConexao.await(); // segura o gravador até as três compras estarem na fila
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return conexaoFalsa(commits, linhas);
+        });
+
+        // Act
+        CompletableFuture<String> primeira = fila.enfileirar("a@email.com", "Produto", 10.0, 0);
+        CompletableFuture<String> invalida = fila.enfileirar("b@email.com", "falha", 10.0, 0);
+        CompletableFuture<String> terceira = fila.enfileirar("c@email.com", "Produto", 10.0, 0);
+        liberarConexao.countDown();
+        fila.close();
+
+        // Assert
+        Assert.assertEquals(FilaCompras.SUCESSO, primeira.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(FilaCompras.ERRO, invalida.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(FilaCompras.SUCESSO, terceira.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, linhas.get());
+    }
+
+    @Test
+    public void filaComprasCheiaRecusaSemBloquearIndefinidamente() throws Exception {
+        // Arrange
+        CountDownLatch liberarConexao = new CountDownLatch(1);
+        FilaCompras fila = new FilaCompras(1, 1, () -> {
+            try {
+                liberarConexao.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return conexaoFalsa(new AtomicInteger(), new AtomicInteger());
+        });
+
+        // Act
+        CompletableFuture<String> emGravacao = fila.enfileirar("a@email.com", "Produto", 1.0, 0);
+        while (fila.getPendentes() > 0) {
+            Thread.sleep(1); // espera o gravador tirar a primeira compra da fila
+        }
+        fila.enfileirar("b@email.com", "Produto", 1.0, 0);
+        CompletableFuture<String> recusada = fila.enfileirar("c@email.com", "Produto", 1.0, 10);
+        liberarConexao.countDown();
+        fila.close();
+
+        // Assert
+        Assert.assertEquals(FilaCompras.FILA_CHEIA, recusada.getNow(null));
+        Assert.assertEquals(FilaCompras.SUCESSO, emGravacao.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void filaComprasNaoRegravaLoteQuandoCommitFalha() throws Exception {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger linhas = new AtomicInteger();
+        CountDownLatch liberarConexao = new CountDownLatch(1);
+        FilaCompras fila = new FilaCompras(10, 10, () -> {
+            try {
+                liberarConexao.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return conexaoFalsa(commits, linhas, true);
+        });
+
+        // Act
+        CompletableFuture<String> primeira = fila.enfileirar("a@email.com", "Produto", 10.0, 0);
+        CompletableFuture<String> segunda = fila.enfileirar("b@email.com", "Produto", 10.0, 0);
+        liberarConexao.countDown();
+        fila.close();
+
+        // Assert
+        Assert.assertEquals(FilaCompras.ERRO, primeira.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(FilaCompras.ERRO, segunda.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("O lote não deveria ser inserido de novo linha a linha", 2, linhas.get());
+    }
+
+    @Test
+    public void filaComprasResolveFuturosQuandoGravadorEInterrompido() throws Exception {
+        // Arrange
+        CountDownLatch gravadorParado = new CountDownLatch(1);
+        Thread[] gravador = new Thread[1];
+        FilaCompras fila = new FilaCompras(10, 1, () -> {
+            gravador[0] = Thread.currentThread();
+            gravadorParado.countDown();
+            try {
+                new CountDownLatch(1).await(); // só sai por interrupção
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        CompletableFuture<String> emGravacao = fila.enfileirar("a@email.com", "Produto", 1.0, 0);
+        gravadorParado.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> naFila = fila.enfileirar("b@email.com", "Produto", 1.0, 0);
+
+        // Act
+        gravador[0].interrupt();
+        fila.close();
+        CompletableFuture<String> depois = fila.enfileirar("c@email.com", "Produto", 1.0, 0);
+
+        // Assert
+        Assert.assertEquals(FilaCompras.ERRO, emGravacao.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(FilaCompras.ERRO, naFila.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(FilaCompras.ERRO, depois.getNow(null));
+    }
+
+    @Test
+    public void filaComprasRecusaCompraDepoisQueGravadorOciosoEInterrompido() throws Exception {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger linhas = new AtomicInteger();
+        Thread[] gravador = new Thread[1];
+        FilaCompras fila = new FilaCompras(100, 10, () -> {
+            gravador[0] = Thread.currentThread();
+            return conexaoFalsa(commits, linhas);
+        });
+        Assert.assertEquals(FilaCompras.SUCESSO, fila.enfileirar("a@email.com", "Produto", 1.0, 0).get(5, TimeUnit.SECONDS));
+        List<CompletableFuture<String>> durante = new ArrayList<>();
+
+        // Act
+        gravador[0].interrupt(); // sem close: o gravador para sozinho enquanto espera a próxima compra
+        for (int i = 0; i < 50; i++) {
+            durante.add(fila.enfileirar("b@email.com", "Produto", 1.0, 0));
+        }
+        gravador[0].join(5000);
+        CompletableFuture<String> depois = fila.enfileirar("c@email.com", "Produto", 1.0, 0);
+
+        // Assert
+        Assert.assertFalse(gravador[0].isAlive());
+        for (CompletableFuture<String> futuro : durante) {
+            Assert.assertNotNull("Compra aceita durante a interrupção ficou sem resposta", futuro.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(FilaCompras.ERRO, depois.getNow(null));
+        Assert.assertEquals(0, fila.getPendentes());
+    }
+
+    // Conexão em memória: conta linhas inseridas e commits, e falha qualquer INSERT com o produto "falha"
+    private static Connection conexaoFalsa(AtomicInteger commits, AtomicInteger linhas) {
+        return conexaoFalsa(commits, linhas, false);
+    }
+
+    private static Connection conexaoFalsa(AtomicInteger commits, AtomicInteger linhas, boolean commitFalha) {
+        return (Connection) Proxy.newProxyInstance(getClassLoader(),
+                new Class<?>[]{Connection.class}, (conexao, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "prepareStatement":
+                            return comandoFalso((String) argumentos[0], linhas);
+                        case "commit":
+                            if (commitFalha) {
+                                throw new SQLException("conexão perdida durante o commit");
+                            }
+                            commits.incrementAndGet();
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static PreparedStatement comandoFalso(String sql, AtomicInteger linhas) {
+        int linhasComando = sql.split("\\(\\?").length - 1;
+        boolean[] falha = new boolean[1];
+        return (PreparedStatement) Proxy.newProxyInstance(getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (comando, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "setString":
+                            falha[0] |= "falha".equals(argumentos[1]);
+                            return null;
+                        case "executeUpdate":
+                            if (falha[0]) {
+                                throw new SQLException("valor inválido");
+                            }
+                            linhas.addAndGet(linhasComando);
+                            return linhasComando;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static ClassLoader getClassLoader() {
+        return UnitTestsDesempenho.class.getClassLoader();
+    }
+
+    // endregion
+}